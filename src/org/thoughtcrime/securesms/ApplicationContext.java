@@ -37,6 +37,7 @@ import org.signal.aesgcmprovider.AesGcmProvider;
 import org.signal.ringrtc.CallConnectionFactory;
 import org.thoughtcrime.securesms.components.TypingStatusRepository;
 import org.thoughtcrime.securesms.components.TypingStatusSender;
+import org.thoughtcrime.securesms.components.emoji.parsing.EmojiPageBitmap;
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.database.helpers.SQLCipherOpenHelper;
 import org.thoughtcrime.securesms.dependencies.ApplicationDependencies;
@@ -74,8 +75,10 @@ import org.thoughtcrime.securesms.revealable.ViewOnceMessageManager;
 import org.thoughtcrime.securesms.service.RotateSenderCertificateListener;
 import org.thoughtcrime.securesms.service.RotateSignedPreKeyListener;
 import org.thoughtcrime.securesms.service.UpdateApkRefreshListener;
+import org.thoughtcrime.securesms.util.Stopwatch;
 import org.thoughtcrime.securesms.util.TextSecurePreferences;
 import org.thoughtcrime.securesms.util.VersionTracker;
+import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
 import org.thoughtcrime.securesms.util.dynamiclanguage.DynamicLanguageContextWrapper;
 import org.webrtc.voiceengine.WebRtcAudioManager;
 import org.webrtc.voiceengine.WebRtcAudioUtils;
@@ -114,35 +117,41 @@ public class ApplicationContext extends MultiDexApplication implements DefaultLi
   @Override
   public void onCreate() {
     super.onCreate();
+    Stopwatch stopwatch = new Stopwatch("onCreate");
     Log.i(TAG, "onCreate()");
     initializeSecurityProvider();
     initializeLogging();
     initializeCrashHandling();
+    stopwatch.split("logging");
     initializeFirstEverAppLaunch();
     initializeAppDependencies();
+    stopwatch.split("dependencies");
     initializeApplicationMigrations();
+    stopwatch.split("migrations");
     initializeMessageRetrieval();
     initializeExpiringMessageManager();
     initializeRevealableMessageManager();
     initializeTypingStatusRepository();
     initializeTypingStatusSender();
-    initializeGcmCheck();
-    initializeSignedPreKeyCheck();
-    initializePeriodicTasks();
+    stopwatch.split("managers");
+    initializeDeferredChecks();
     initializeCircumvention();
     initializeRingRtc();
-    initializePendingMessages();
-    initializeUnidentifiedDeliveryAbilityRefresh();
+    stopwatch.split("ringrtc");
     initializeBlobProvider();
+    initializePreUploadCleanup();
     initializeCameraX();
     NotificationChannels.create(this);
     ProcessLifecycleOwner.get().getLifecycle().addObserver(this);
+    stopwatch.split("channels");
 
     if (Build.VERSION.SDK_INT < 21) {
       AppCompatDelegate.setCompatVectorFromResourcesEnabled(true);
     }
 
     ApplicationDependencies.getJobManager().beginJobLoop();
+    stopwatch.split("jobs");
+    stopwatch.stop(TAG);
   }
 
   @Override
@@ -162,6 +171,15 @@ public class ApplicationContext extends MultiDexApplication implements DefaultLi
     MessageNotifier.setVisibleThread(-1);
   }
 
+  @Override
+  public void onTrimMemory(int level) {
+    super.onTrimMemory(level);
+
+    if (level >= TRIM_MEMORY_BACKGROUND) {
+      EmojiPageBitmap.evictAll();
+    }
+  }
+
   public ExpiringMessageManager getExpiringMessageManager() {
     return expiringMessageManager;
   }
@@ -248,6 +266,25 @@ public class ApplicationContext extends MultiDexApplication implements DefaultLi
     }
   }
 
+  /**
+   * Checks that only schedule jobs or alarms and that nothing else waits on, so they don't need to
+   * hold up the main thread during startup.
+   */
+  private void initializeDeferredChecks() {
+    SignalExecutors.BOUNDED.execute(() -> {
+      Stopwatch stopwatch = new Stopwatch("deferred-checks");
+
+      initializeGcmCheck();
+      initializeSignedPreKeyCheck();
+      initializePeriodicTasks();
+      initializePendingMessages();
+      initializeUnidentifiedDeliveryAbilityRefresh();
+
+      stopwatch.split("checks");
+      stopwatch.stop(TAG);
+    });
+  }
+
   private void initializeGcmCheck() {
     if (TextSecurePreferences.isPushRegistered(this)) {
       long nextSetTime = TextSecurePreferences.getFcmTokenLastSetTime(this) + TimeUnit.HOURS.toMillis(6);
@@ -375,6 +412,14 @@ public class ApplicationContext extends MultiDexApplication implements DefaultLi
     });
   }
 
+  private void initializePreUploadCleanup() {
+    long processStartTime = System.currentTimeMillis();
+
+    AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> {
+      DatabaseFactory.getAttachmentDatabase(this).deleteAbandonedPreUploadedAttachments(processStartTime);
+    });
+  }
+
   @SuppressLint("RestrictedApi")
   private void initializeCameraX() {
     if (CameraXUtil.isSupported()) {
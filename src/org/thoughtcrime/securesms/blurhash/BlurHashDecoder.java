@@ -21,22 +21,73 @@
 package org.thoughtcrime.securesms.blurhash;
 
 import android.graphics.Bitmap;
-import android.graphics.Color;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import org.thoughtcrime.securesms.util.LRUCache;
+
+import java.util.Collections;
+import java.util.Map;
+
 import static org.thoughtcrime.securesms.blurhash.BlurHashUtil.linearTosRGB;
 import static org.thoughtcrime.securesms.blurhash.BlurHashUtil.sRGBToLinear;
 import static org.thoughtcrime.securesms.blurhash.BlurHashUtil.signPow;
 
+/**
+ * Decodes BlurHashes into pixels. The cosine basis is computed once per column and row rather than
+ * per pixel and component, and sRGB conversions go through lookup tables, so the output matches a
+ * straightforward evaluation of the BlurHash formula exactly while doing far less work. Recently
+ * decoded pixels are kept so that rebinding the same placeholder doesn't decode it again.
+ */
 class BlurHashDecoder {
 
+  private static final int CACHE_SIZE = 50;
+
+  private static final double[] SRGB_TO_LINEAR = new double[256];
+  private static final double[] LINEAR_TO_SRGB = new double[256];
+
+  private static final Map<String, int[]> CACHE = Collections.synchronizedMap(new LRUCache<>(CACHE_SIZE));
+
+  static {
+    for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+      SRGB_TO_LINEAR[i] = sRGBToLinear(i);
+    }
+
+    for (int i = 1; i < LINEAR_TO_SRGB.length; i++) {
+      LINEAR_TO_SRGB[i] = findLinearThreshold(i);
+    }
+  }
+
   static @Nullable Bitmap decode(@Nullable String blurHash, int width, int height) {
     return decode(blurHash, width, height, 1f);
   }
 
   static @Nullable Bitmap decode(@Nullable String blurHash, int width, int height, double punch) {
+    if (blurHash == null || width <= 0 || height <= 0) {
+      return null;
+    }
+
+    String key    = blurHash + ":" + width + "x" + height + ":" + punch;
+    int[]  pixels = CACHE.get(key);
+
+    if (pixels == null) {
+      pixels = decodePixels(blurHash, width, height, punch);
+
+      if (pixels == null) {
+        return null;
+      }
+
+      CACHE.put(key, pixels);
+    }
+
+    return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+  }
 
+  /**
+   * @return The decoded image as ARGB pixels in row-major order, or null if the hash is invalid.
+   */
+  static @Nullable int[] decodePixels(@Nullable String blurHash, int width, int height, double punch) {
     if (blurHash == null || blurHash.length() < 6) {
       return null;
     }
@@ -49,45 +100,41 @@ class BlurHashDecoder {
       return null;
     }
 
-    int        maxAcEnc = Base83.decode(blurHash, 1, 2);
-    double     maxAc    = (maxAcEnc + 1) / 166f;
-    double[][] colors   = new double[numCompX * numCompY][];
-    for (int i = 0; i < colors.length; i++) {
-      if (i == 0) {
-        int colorEnc = Base83.decode(blurHash, 2, 6);
-        colors[i] = decodeDc(colorEnc);
-      } else {
-        int from = 4 + i * 2;
-        int colorEnc = Base83.decode(blurHash, from, from + 2);
-        colors[i] = decodeAc(colorEnc, maxAc * punch);
-      }
+    int      maxAcEnc = Base83.decode(blurHash, 1, 2);
+    double   maxAc    = (maxAcEnc + 1) / 166f;
+    double[] colors   = new double[numCompX * numCompY * 3];
+
+    decodeDc(Base83.decode(blurHash, 2, 6), colors);
+
+    for (int i = 1; i < numCompX * numCompY; i++) {
+      int from = 4 + i * 2;
+      decodeAc(Base83.decode(blurHash, from, from + 2), maxAc * punch, colors, i * 3);
     }
 
-    return composeBitmap(width, height, numCompX, numCompY, colors);
+    return composePixels(width, height, numCompX, numCompY, colors);
   }
 
-  private static double[] decodeDc(int colorEnc) {
-    int r = colorEnc >> 16;
-    int g = (colorEnc >> 8) & 255;
-    int b = colorEnc & 255;
-    return new double[] {sRGBToLinear(r),
-                         sRGBToLinear(g),
-                         sRGBToLinear(b)};
+  private static void decodeDc(int colorEnc, @NonNull double[] colors) {
+    colors[0] = toLinear(colorEnc >> 16);
+    colors[1] = toLinear((colorEnc >> 8) & 255);
+    colors[2] = toLinear(colorEnc & 255);
   }
 
-  private static double[] decodeAc(int value, double maxAc) {
+  private static void decodeAc(int value, double maxAc, @NonNull double[] colors, int offset) {
     int r = value / (19 * 19);
     int g = (value / 19) % 19;
     int b = value % 19;
-    return new double[]{
-        signPow((r - 9) / 9.0f, 2f) * maxAc,
-        signPow((g - 9) / 9.0f, 2f) * maxAc,
-        signPow((b - 9) / 9.0f, 2f) * maxAc
-    };
+
+    colors[offset]     = signPow((r - 9) / 9.0f, 2f) * maxAc;
+    colors[offset + 1] = signPow((g - 9) / 9.0f, 2f) * maxAc;
+    colors[offset + 2] = signPow((b - 9) / 9.0f, 2f) * maxAc;
   }
 
-  private static Bitmap composeBitmap(int width, int height, int numCompX, int numCompY, double[][] colors) {
-    Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+  private static @NonNull int[] composePixels(int width, int height, int numCompX, int numCompY, @NonNull double[] colors) {
+    double[] cosX   = cosineTable(width, numCompX);
+    double[] cosY   = cosineTable(height, numCompY);
+    int[]    pixels = new int[width * height];
+
     for (int y = 0; y < height; y++) {
       for (int x = 0; x < width; x++) {
 
@@ -96,18 +143,74 @@ class BlurHashDecoder {
         double b = 0f;
 
         for (int j = 0; j < numCompY; j++) {
+          double basisY = cosY[y * numCompY + j];
+
           for (int i = 0; i < numCompX; i++) {
-            double basis = (Math.cos(Math.PI * x * i / width) * Math.cos(Math.PI * y * j / height));
-            double[] color = colors[j * numCompX + i];
-            r += color[0] * basis;
-            g += color[1] * basis;
-            b += color[2] * basis;
+            double basis = cosX[x * numCompX + i] * basisY;
+            int    color = (j * numCompX + i) * 3;
+
+            r += colors[color]     * basis;
+            g += colors[color + 1] * basis;
+            b += colors[color + 2] * basis;
           }
         }
-        bitmap.setPixel(x, y, Color.rgb((int) linearTosRGB(r), (int) linearTosRGB(g), (int) linearTosRGB(b)));
+
+        pixels[y * width + x] = 0xFF000000 | (toSRGB(r) << 16) | (toSRGB(g) << 8) | toSRGB(b);
       }
     }
 
-    return bitmap;
+    return pixels;
+  }
+
+  private static @NonNull double[] cosineTable(int size, int numComp) {
+    double[] table = new double[size * numComp];
+
+    for (int p = 0; p < size; p++) {
+      for (int c = 0; c < numComp; c++) {
+        table[p * numComp + c] = Math.cos(Math.PI * p * c / size);
+      }
+    }
+
+    return table;
+  }
+
+  private static double toLinear(int value) {
+    return value >= 0 && value < SRGB_TO_LINEAR.length ? SRGB_TO_LINEAR[value] : sRGBToLinear(value);
+  }
+
+  /**
+   * Equivalent to {@link BlurHashUtil#linearTosRGB(double)}, found by binary search over the
+   * smallest linear value that maps to each sRGB value.
+   */
+  private static int toSRGB(double value) {
+    int low  = 0;
+    int high = LINEAR_TO_SRGB.length - 1;
+
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+
+      if (LINEAR_TO_SRGB[mid] <= value) low  = mid;
+      else                              high = mid - 1;
+    }
+
+    return low;
+  }
+
+  /**
+   * @return The smallest double in [0, 1] that {@link BlurHashUtil#linearTosRGB(double)} maps to at
+   *         least {@code target}. Non-negative doubles sort the same way as their bit patterns.
+   */
+  private static double findLinearThreshold(int target) {
+    long low  = Double.doubleToLongBits(0);
+    long high = Double.doubleToLongBits(1);
+
+    while (high - low > 1) {
+      long mid = (low + high) >>> 1;
+
+      if (linearTosRGB(Double.longBitsToDouble(mid)) >= target) high = mid;
+      else                                                         low  = mid;
+    }
+
+    return Double.longBitsToDouble(high);
   }
 }
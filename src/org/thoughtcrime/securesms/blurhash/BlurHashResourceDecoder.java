@@ -34,6 +34,8 @@ public class BlurHashResourceDecoder implements ResourceDecoder<BlurHash, Bitmap
       finalWidth  = (int) (finalHeight * width / (float) height);
     }
 
-    return new SimpleResource<>(BlurHashDecoder.decode(source.getHash(), finalWidth, finalHeight));
+    Bitmap bitmap = BlurHashDecoder.decode(source.getHash(), finalWidth, finalHeight);
+
+    return bitmap != null ? new SimpleResource<>(bitmap) : null;
   }
 }
\ No newline at end of file
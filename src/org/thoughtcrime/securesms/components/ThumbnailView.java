@@ -24,6 +24,7 @@ import com.bumptech.glide.request.RequestOptions;
 
 import org.thoughtcrime.securesms.R;
 import org.thoughtcrime.securesms.database.AttachmentDatabase;
+import org.thoughtcrime.securesms.glide.ThumbnailCacheMetrics;
 import org.thoughtcrime.securesms.mms.DecryptableStreamUriLoader.DecryptableUri;
 import org.thoughtcrime.securesms.mms.GlideRequest;
 import org.thoughtcrime.securesms.mms.GlideRequests;
@@ -374,6 +375,7 @@ public class ThumbnailView extends FrameLayout {
   private GlideRequest buildThumbnailGlideRequest(@NonNull GlideRequests glideRequests, @NonNull Slide slide) {
     GlideRequest request = applySizing(glideRequests.load(new DecryptableUri(slide.getThumbnailUri()))
                                           .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                                          .addListener(ThumbnailCacheMetrics.getInstance())
                                           .transition(withCrossFade()), new CenterCrop());
 
     if (slide.isInProgress()) return request;
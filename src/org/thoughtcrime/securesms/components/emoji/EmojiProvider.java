@@ -24,10 +24,13 @@ import org.thoughtcrime.securesms.components.emoji.parsing.EmojiParser;
 import org.thoughtcrime.securesms.components.emoji.parsing.EmojiTree;
 import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.util.FutureTaskListener;
+import org.thoughtcrime.securesms.util.LRUCache;
 import org.thoughtcrime.securesms.util.Util;
 import org.whispersystems.libsignal.util.Pair;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 class EmojiProvider {
@@ -36,13 +39,18 @@ class EmojiProvider {
   private static volatile EmojiProvider instance = null;
   private static final    Paint         paint    = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG);
 
-  private final EmojiTree emojiTree = new EmojiTree();
+  private final EmojiTree   emojiTree   = new EmojiTree();
+  private final EmojiParser emojiParser = new EmojiParser(emojiTree);
+
+  private final Map<String, EmojiParser.CandidateList> candidateCache = Collections.synchronizedMap(new LRUCache<>(CANDIDATE_CACHE_SIZE));
 
   private static final int EMOJI_RAW_HEIGHT = 64;
   private static final int EMOJI_RAW_WIDTH  = 64;
   private static final int EMOJI_VERT_PAD   = 0;
   private static final int EMOJI_PER_ROW    = 32;
 
+  private static final int CANDIDATE_CACHE_SIZE = 200;
+
   private final float decodeScale;
   private final float verticalPad;
 
@@ -77,9 +85,31 @@ class EmojiProvider {
     }
   }
 
+  /**
+   * Finds the emoji in {@code text}, remembering the result for recently seen text. The returned
+   * list is shared between callers and can't be modified.
+   */
   @Nullable EmojiParser.CandidateList getCandidates(@Nullable CharSequence text) {
     if (text == null) return null;
-    return new EmojiParser(emojiTree).findCandidates(text);
+
+    String                    key        = text.toString();
+    EmojiParser.CandidateList candidates = candidateCache.get(key);
+
+    if (candidates == null) {
+      candidates = emojiParser.findCandidates(key);
+      candidateCache.put(key, candidates);
+    }
+
+    return candidates;
+  }
+
+  /**
+   * As {@link #getCandidates(CharSequence)}, but without touching the cache. For one-off text such
+   * as the truncated copies made while ellipsizing, which would only push useful entries out.
+   */
+  @Nullable EmojiParser.CandidateList getUncachedCandidates(@Nullable CharSequence text) {
+    if (text == null) return null;
+    return emojiParser.findCandidates(text);
   }
 
   @Nullable Spannable emojify(@Nullable CharSequence text, @NonNull TextView tv) {
@@ -128,10 +158,10 @@ class EmojiProvider {
   }
 
   class EmojiDrawable extends Drawable {
-    private final EmojiDrawInfo info;
-    private       Bitmap        bmp;
-    private       float         intrinsicWidth;
-    private       float         intrinsicHeight;
+    private final Rect   source;
+    private       Bitmap bmp;
+    private       float  intrinsicWidth;
+    private       float  intrinsicHeight;
 
     @Override
     public int getIntrinsicWidth() {
@@ -144,9 +174,16 @@ class EmojiProvider {
     }
 
     EmojiDrawable(EmojiDrawInfo info, float decodeScale) {
-      this.info            = info;
       this.intrinsicWidth  = EMOJI_RAW_WIDTH  * decodeScale;
       this.intrinsicHeight = EMOJI_RAW_HEIGHT * decodeScale;
+
+      final int row = info.getIndex() / EMOJI_PER_ROW;
+      final int row_index = info.getIndex() % EMOJI_PER_ROW;
+
+      this.source = new Rect((int)(row_index * intrinsicWidth),
+                             (int)(row * intrinsicHeight + row * verticalPad)+1,
+                             (int)(((row_index + 1) * intrinsicWidth)-1),
+                             (int)((row + 1) * intrinsicHeight + row * verticalPad)-1);
     }
 
     @Override
@@ -155,16 +192,7 @@ class EmojiProvider {
         return;
       }
 
-      final int row = info.getIndex() / EMOJI_PER_ROW;
-      final int row_index = info.getIndex() % EMOJI_PER_ROW;
-
-      canvas.drawBitmap(bmp,
-                        new Rect((int)(row_index * intrinsicWidth),
-                                 (int)(row * intrinsicHeight + row * verticalPad)+1,
-                                 (int)(((row_index + 1) * intrinsicWidth)-1),
-                                 (int)((row + 1) * intrinsicHeight + row * verticalPad)-1),
-                        getBounds(),
-                        paint);
+      canvas.drawBitmap(bmp, source, getBounds(), paint);
     }
 
     @TargetApi(VERSION_CODES.HONEYCOMB_MR1)
@@ -115,7 +115,7 @@ public class EmojiTextView extends AppCompatTextView {
       SpannableStringBuilder newContent = new SpannableStringBuilder();
       newContent.append(getText().subSequence(0, maxLength)).append(ELLIPSIS).append(Optional.fromNullable(overflowText).or(""));
 
-      EmojiParser.CandidateList newCandidates = EmojiProvider.getInstance(getContext()).getCandidates(newContent);
+      EmojiParser.CandidateList newCandidates = EmojiProvider.getInstance(getContext()).getUncachedCandidates(newContent);
 
       if (useSystemEmoji || newCandidates == null || newCandidates.size() == 0) {
         super.setText(newContent, BufferType.NORMAL);
@@ -149,7 +149,7 @@ public class EmojiTextView extends AppCompatTextView {
                   .append(ellipsized.subSequence(0, ellipsized.length()))
                   .append(Optional.fromNullable(overflowText).or(""));
 
-        EmojiParser.CandidateList newCandidates = EmojiProvider.getInstance(getContext()).getCandidates(newContent);
+        EmojiParser.CandidateList newCandidates = EmojiProvider.getInstance(getContext()).getUncachedCandidates(newContent);
         CharSequence              emojified     = EmojiProvider.getInstance(getContext()).emojify(newCandidates, newContent, this);
 
         super.setText(emojified, BufferType.SPANNABLE);
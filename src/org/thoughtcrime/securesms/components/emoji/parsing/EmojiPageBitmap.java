@@ -6,6 +6,8 @@ import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.os.AsyncTask;
+import android.util.LruCache;
+
 import androidx.annotation.NonNull;
 import org.thoughtcrime.securesms.logging.Log;
 
@@ -17,20 +19,36 @@ import org.thoughtcrime.securesms.util.Util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.ref.SoftReference;
 import java.util.concurrent.Callable;
 
 public class EmojiPageBitmap {
 
   private static final String TAG = EmojiPageBitmap.class.getSimpleName();
 
+  /**
+   * Decoded sprite pages are held strongly, up to a budget, so that a GC doesn't force pages that
+   * are still on screen to be decoded again. Least recently used pages are dropped first.
+   */
+  private static final LruCache<EmojiPageBitmap, Bitmap> PAGE_CACHE = new LruCache<EmojiPageBitmap, Bitmap>((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8)) {
+    @Override
+    protected int sizeOf(EmojiPageBitmap page, Bitmap bitmap) {
+      return bitmap.getByteCount();
+    }
+  };
+
   private final Context        context;
   private final EmojiPageModel model;
   private final float          decodeScale;
 
-  private SoftReference<Bitmap>        bitmapReference;
   private ListenableFutureTask<Bitmap> task;
 
+  /**
+   * Drops all decoded pages. Spans that are still visible keep their bitmaps until they're rebound.
+   */
+  public static void evictAll() {
+    PAGE_CACHE.evictAll();
+  }
+
   public EmojiPageBitmap(@NonNull Context context, @NonNull EmojiPageModel model, float decodeScale) {
     this.context     = context.getApplicationContext();
     this.model       = model;
@@ -41,8 +59,10 @@ public class EmojiPageBitmap {
   public ListenableFutureTask<Bitmap> get() {
     Util.assertMainThread();
 
-    if (bitmapReference != null && bitmapReference.get() != null) {
-      return new ListenableFutureTask<>(bitmapReference.get());
+    Bitmap cached = PAGE_CACHE.get(this);
+
+    if (cached != null) {
+      return new ListenableFutureTask<>(cached);
     } else if (task != null) {
       return task;
     } else {
@@ -71,8 +91,8 @@ public class EmojiPageBitmap {
   }
 
   private Bitmap loadPage() throws IOException {
-    if (bitmapReference != null && bitmapReference.get() != null) return bitmapReference.get();
-
+    Bitmap cached = PAGE_CACHE.get(this);
+    if (cached != null) return cached;
 
     float                 scale        = decodeScale;
     AssetManager          assetManager = context.getAssets();
@@ -93,7 +113,7 @@ public class EmojiPageBitmap {
     stopwatch.split("scale");
     stopwatch.stop(TAG);
 
-    bitmapReference = new SoftReference<>(scaledBitmap);
+    PAGE_CACHE.put(this, scaledBitmap);
     Log.i(TAG, "onPageLoaded(" + model.getSprite() + ")  originalByteCount: " + bitmap.getByteCount()
                                                     + "  scaledByteCount: "   + scaledBitmap.getByteCount()
                                                     + "  scaledSize: "        + scaledBitmap.getWidth() + "x" + scaledBitmap.getHeight());
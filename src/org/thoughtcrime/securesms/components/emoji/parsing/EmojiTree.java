@@ -20,10 +20,10 @@
 
 package org.thoughtcrime.securesms.components.emoji.parsing;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Based in part on code from emoji-java
@@ -48,30 +48,30 @@ public class EmojiTree {
     tree.setEmoji(emoji);
   }
 
-  public Matches isEmoji(CharSequence sequence, int startPosition, int endPosition) {
-    if (sequence == null) {
-      return Matches.POSSIBLY;
-    }
-
+  /**
+   * Walks the tree once from {@code startPosition} and returns the end of the longest emoji that
+   * starts there, or -1 if there is none. An emoji is also considered to match without its trailing
+   * variation selector.
+   */
+  public int getLongestMatchEnd(@NonNull CharSequence sequence, int startPosition) {
     EmojiTreeNode tree = root;
+    int           best = -1;
 
-    for (int i=startPosition; i<endPosition; i++) {
+    for (int i = startPosition; i < sequence.length(); i++) {
       char character = sequence.charAt(i);
 
-      if (!tree.hasChild(character)) {
-        return Matches.IMPOSSIBLE;
+      tree = tree.getChild(character);
+
+      if (tree == null) {
+        break;
       }
 
-      tree = tree.getChild(character);
+      if (tree.isEndOfEmoji() || (character != TERMINATOR && tree.hasTerminatedEmoji())) {
+        best = i + 1;
+      }
     }
 
-    if (tree.isEndOfEmoji()) {
-      return Matches.EXACTLY;
-    } else if (sequence.charAt(endPosition-1) != TERMINATOR && tree.hasChild(TERMINATOR) && tree.getChild(TERMINATOR).isEndOfEmoji()) {
-      return Matches.EXACTLY;
-    } else {
-      return Matches.POSSIBLY;
-    }
+    return best;
   }
 
   public @Nullable EmojiDrawInfo getEmoji(CharSequence unicode, int startPosition, int endPostiion) {
@@ -95,8 +95,12 @@ public class EmojiTree {
 
   private static class EmojiTreeNode {
 
-    private Map<Character, EmojiTreeNode> children = new HashMap<>();
-    private EmojiDrawInfo emoji;
+    private static final char[]          NO_KEYS     = new char[0];
+    private static final EmojiTreeNode[] NO_CHILDREN = new EmojiTreeNode[0];
+
+    private char[]          keys     = NO_KEYS;
+    private EmojiTreeNode[] children = NO_CHILDREN;
+    private EmojiDrawInfo   emoji;
 
     public void setEmoji(EmojiDrawInfo emoji) {
       this.emoji = emoji;
@@ -107,32 +111,43 @@ public class EmojiTree {
     }
 
     boolean hasChild(char child) {
-      return children.containsKey(child);
+      return Arrays.binarySearch(keys, child) >= 0;
     }
 
     void addChild(char child) {
-      children.put(child, new EmojiTreeNode());
+      int index = Arrays.binarySearch(keys, child);
+
+      if (index >= 0) return;
+
+      int insertAt = -index - 1;
+
+      char[]          newKeys     = new char[keys.length + 1];
+      EmojiTreeNode[] newChildren = new EmojiTreeNode[children.length + 1];
+
+      System.arraycopy(keys, 0, newKeys, 0, insertAt);
+      System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+      System.arraycopy(children, 0, newChildren, 0, insertAt);
+      System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+      newKeys[insertAt]     = child;
+      newChildren[insertAt] = new EmojiTreeNode();
+
+      keys     = newKeys;
+      children = newChildren;
     }
 
-    EmojiTreeNode getChild(char child) {
-      return children.get(child);
+    @Nullable EmojiTreeNode getChild(char child) {
+      int index = Arrays.binarySearch(keys, child);
+      return index >= 0 ? children[index] : null;
     }
 
     boolean isEndOfEmoji() {
       return emoji != null;
     }
-  }
-
-  public enum Matches {
-    EXACTLY, POSSIBLY, IMPOSSIBLE;
 
-    public boolean exactMatch() {
-      return this == EXACTLY;
-    }
-
-    public boolean impossibleMatch() {
-      return this == IMPOSSIBLE;
+    boolean hasTerminatedEmoji() {
+      EmojiTreeNode terminated = getChild(TERMINATOR);
+      return terminated != null && terminated.isEndOfEmoji();
     }
   }
-
 }
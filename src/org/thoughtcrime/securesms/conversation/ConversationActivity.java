@@ -197,6 +197,7 @@ import org.thoughtcrime.securesms.registration.RegistrationNavigationActivity;
 import org.thoughtcrime.securesms.search.model.MessageResult;
 import org.thoughtcrime.securesms.service.KeyCachingService;
 import org.thoughtcrime.securesms.sms.MessageSender;
+import org.thoughtcrime.securesms.sms.MessageSender.PreUploadResult;
 import org.thoughtcrime.securesms.sms.OutgoingEncryptedMessage;
 import org.thoughtcrime.securesms.sms.OutgoingEndSessionMessage;
 import org.thoughtcrime.securesms.sms.OutgoingTextMessage;
@@ -573,6 +574,8 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
       QuoteModel      quote          = viewOnce ? null : inputPanel.getQuote().orNull();
       SlideDeck       slideDeck      = new SlideDeck();
 
+      List<PreUploadResult> preUploads = data.getParcelableArrayListExtra(MediaSendActivity.EXTRA_PRE_UPLOADS);
+
       if (transport == null) {
         throw new IllegalStateException("Received a null transport from the MediaSendActivity.");
       }
@@ -605,7 +608,8 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
                        viewOnce,
                        subscriptionId,
                        initiating,
-                       true).addListener(new AssertedSuccessListener<Void>() {
+                       true,
+                       preUploads != null ? preUploads : Collections.emptyList()).addListener(new AssertedSuccessListener<Void>() {
         @Override
         public void onSuccess(Void result) {
           AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> {
@@ -1859,7 +1863,7 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
     long       expiresIn      = recipient.get().getExpireMessages() * 1000L;
     boolean    initiating     = threadId == -1;
 
-    sendMediaMessage(isSmsForced(), "", attachmentManager.buildSlideDeck(), null, contacts, Collections.emptyList(), expiresIn, false, subscriptionId, initiating, false);
+    sendMediaMessage(isSmsForced(), "", attachmentManager.buildSlideDeck(), null, contacts, Collections.emptyList(), expiresIn, false, subscriptionId, initiating, false, Collections.emptyList());
   }
 
   private void selectContactInfo(ContactData contactData) {
@@ -2201,7 +2205,7 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
       throws InvalidMessageException
   {
     Log.i(TAG, "Sending media message...");
-    sendMediaMessage(forceSms, getMessage(), attachmentManager.buildSlideDeck(), inputPanel.getQuote().orNull(), Collections.emptyList(), linkPreviewViewModel.getActiveLinkPreviews(), expiresIn, viewOnce, subscriptionId, initiating, true);
+    sendMediaMessage(forceSms, getMessage(), attachmentManager.buildSlideDeck(), inputPanel.getQuote().orNull(), Collections.emptyList(), linkPreviewViewModel.getActiveLinkPreviews(), expiresIn, viewOnce, subscriptionId, initiating, true, Collections.emptyList());
   }
 
   private ListenableFuture<Void> sendMediaMessage(final boolean forceSms,
@@ -2214,8 +2218,17 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
                                                   final boolean viewOnce,
                                                   final int subscriptionId,
                                                   final boolean initiating,
-                                                  final boolean clearComposeBox)
+                                                  final boolean clearComposeBox,
+                                                  final @NonNull List<PreUploadResult> preUploads)
   {
+    final Context context            = getApplicationContext();
+    final boolean sendWithPreUploads = !preUploads.isEmpty() && isSecureText && !forceSms;
+
+    if (!preUploads.isEmpty() && !sendWithPreUploads) {
+      Log.i(TAG, "Not sending over push. Cancelling " + preUploads.size() + " pre-upload(s).");
+      AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> MessageSender.cancelPreUploads(context, preUploads));
+    }
+
     if (!isDefaultSms && (!isSecureText || forceSms)) {
       showDefaultSmsPrompt();
       return new SettableFuture<>(null);
@@ -2232,8 +2245,7 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
 
     OutgoingMediaMessage outgoingMessageCandidate = new OutgoingMediaMessage(recipient.get(), slideDeck, body, System.currentTimeMillis(), subscriptionId, expiresIn, viewOnce, distributionType, quote, contacts, previews);
 
-    final SettableFuture<Void> future  = new SettableFuture<>();
-    final Context              context = getApplicationContext();
+    final SettableFuture<Void> future = new SettableFuture<>();
 
     final OutgoingMediaMessage outgoingMessage;
 
@@ -2264,6 +2276,10 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
                        DatabaseFactory.getRecipientDatabase(context).setProfileSharing(recipient.getId(), true);
                      }
 
+                     if (sendWithPreUploads) {
+                       return MessageSender.sendPushWithPreUploadedMedia(context, outgoingMessage, preUploads, threadId, () -> fragment.releaseOutgoingMessage(id));
+                     }
+
                      return MessageSender.send(context, outgoingMessage, threadId, forceSms, () -> fragment.releaseOutgoingMessage(id));
                    }
 
@@ -2431,7 +2447,7 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
         SlideDeck  slideDeck      = new SlideDeck();
         slideDeck.addSlide(audioSlide);
 
-        sendMediaMessage(forceSms, "", slideDeck, inputPanel.getQuote().orNull(), Collections.emptyList(), Collections.emptyList(), expiresIn, false, subscriptionId, initiating, true).addListener(new AssertedSuccessListener<Void>() {
+        sendMediaMessage(forceSms, "", slideDeck, inputPanel.getQuote().orNull(), Collections.emptyList(), Collections.emptyList(), expiresIn, false, subscriptionId, initiating, true, Collections.emptyList()).addListener(new AssertedSuccessListener<Void>() {
           @Override
           public void onSuccess(Void nothing) {
             new AsyncTask<Void, Void, Void>() {
@@ -2560,7 +2576,7 @@ public class ConversationActivity extends PassphraseRequiredActionBarActivity
 
     slideDeck.addSlide(stickerSlide);
 
-    sendMediaMessage(transport.isSms(), "", slideDeck, null, Collections.emptyList(), Collections.emptyList(), expiresIn, false, subscriptionId, initiating, clearCompose);
+    sendMediaMessage(transport.isSms(), "", slideDeck, null, Collections.emptyList(), Collections.emptyList(), expiresIn, false, subscriptionId, initiating, clearCompose, Collections.emptyList());
 
   }
 
@@ -0,0 +1,288 @@
+package org.thoughtcrime.securesms.crypto;
+
+
+import androidx.annotation.NonNull;
+
+import org.thoughtcrime.securesms.util.ByteArrayPool;
+import org.thoughtcrime.securesms.util.Conversions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Random access reader for files written by {@link ModernEncryptingPartOutputStream}.
+ *
+ * Unlike {@link ModernDecryptingPartInputStream}, which has to be recreated and skip forward for
+ * every seek, this keeps a single {@link FileChannel} and derived key open for the lifetime of the
+ * reader, and computes the AES-CTR counter block for any requested position directly. Sequential
+ * reads continue the existing cipher state, and ciphertext is read through a pooled buffer straight
+ * into the caller's array, so streaming through {@link #asInputStream(long)} avoids the extra
+ * copies made by a {@link javax.crypto.CipherInputStream}.
+ */
+public final class ModernDecryptingPartReader implements Closeable {
+
+  private static final int BLOCK_SIZE  = 16;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_POOLED  = 4;
+
+  private static final ByteArrayPool DEFAULT_BUFFER_POOL = new ByteArrayPool(BUFFER_SIZE, MAX_POOLED);
+
+  private final ByteArrayPool bufferPool;
+  private final FileChannel   channel;
+  private final long          headerLength;
+  private final SecretKeySpec key;
+  private final Cipher        cipher;
+  private final byte[]        iv;
+  private final byte[]        remainderBuffer;
+
+  private byte[]  cipherBuffer;
+  private long    cipherPosition = -1;
+  private boolean closed;
+
+  /**
+   * For files where the random was stored separately, e.g. in the attachment table.
+   */
+  public static ModernDecryptingPartReader createFor(@NonNull AttachmentSecret attachmentSecret, @NonNull byte[] random, @NonNull File file)
+      throws IOException
+  {
+    return createFor(attachmentSecret, random, file, DEFAULT_BUFFER_POOL);
+  }
+
+  /**
+   * As above, but reads ciphertext through buffers from {@code bufferPool}, which must hand out
+   * buffers of at least 16 bytes. The default pool holds up to 4 buffers of 64 KB.
+   */
+  public static ModernDecryptingPartReader createFor(@NonNull AttachmentSecret attachmentSecret, @NonNull byte[] random, @NonNull File file, @NonNull ByteArrayPool bufferPool)
+      throws IOException
+  {
+    return create(attachmentSecret, random, new RandomAccessFile(file, "r").getChannel(), 0, bufferPool);
+  }
+
+  /**
+   * For files where the random is written inline as a header, e.g. blobs.
+   */
+  public static ModernDecryptingPartReader createFor(@NonNull AttachmentSecret attachmentSecret, @NonNull File file)
+      throws IOException
+  {
+    return createFor(attachmentSecret, file, DEFAULT_BUFFER_POOL);
+  }
+
+  /**
+   * As above, but reads ciphertext through buffers from {@code bufferPool}.
+   */
+  public static ModernDecryptingPartReader createFor(@NonNull AttachmentSecret attachmentSecret, @NonNull File file, @NonNull ByteArrayPool bufferPool)
+      throws IOException
+  {
+    FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+    ByteBuffer  random  = ByteBuffer.allocate(32);
+
+    try {
+      while (random.hasRemaining()) {
+        if (channel.read(random, random.position()) == -1) {
+          throw new IOException("Prematurely reached end of stream!");
+        }
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+
+    return create(attachmentSecret, random.array(), channel, random.capacity(), bufferPool);
+  }
+
+  private static ModernDecryptingPartReader create(@NonNull AttachmentSecret attachmentSecret,
+                                                   @NonNull byte[] random,
+                                                   @NonNull FileChannel channel,
+                                                   long headerLength,
+                                                   @NonNull ByteArrayPool bufferPool)
+      throws IOException
+  {
+    try {
+      return new ModernDecryptingPartReader(attachmentSecret, random, channel, headerLength, bufferPool);
+    } catch (RuntimeException | Error e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private ModernDecryptingPartReader(@NonNull AttachmentSecret attachmentSecret,
+                                     @NonNull byte[] random,
+                                     @NonNull FileChannel channel,
+                                     long headerLength,
+                                     @NonNull ByteArrayPool bufferPool)
+  {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(new SecretKeySpec(attachmentSecret.getModernKey(), "HmacSHA256"));
+
+      this.bufferPool      = bufferPool;
+      this.channel         = channel;
+      this.headerLength    = headerLength;
+      this.key             = new SecretKeySpec(mac.doFinal(random), "AES");
+      this.cipher          = Cipher.getInstance("AES/CTR/NoPadding");
+      this.iv              = new byte[BLOCK_SIZE];
+      this.cipherBuffer    = bufferPool.acquire();
+      this.remainderBuffer = new byte[BLOCK_SIZE];
+    } catch (NoSuchAlgorithmException | InvalidKeyException | NoSuchPaddingException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * @return The size of the plaintext.
+   */
+  public long getSize() throws IOException {
+    return Math.max(0, channel.size() - headerLength);
+  }
+
+  /**
+   * Decrypts up to {@code length} bytes starting at plaintext {@code position} into {@code buffer}.
+   *
+   * @return The number of bytes read, or -1 if {@code position} is at or beyond the end of the file.
+   */
+  public synchronized int read(long position, @NonNull byte[] buffer, int offset, int length) throws IOException {
+    if (closed)      throw new IOException("Reader is closed!");
+    if (length == 0) return 0;
+
+    if (position != cipherPosition && !seek(position)) {
+      return -1;
+    }
+
+    int totalRead = 0;
+
+    // The cipher state advances with every update, so until the read completes it no longer
+    // matches any position we could resume from.
+    cipherPosition = -1;
+
+    while (totalRead < length) {
+      int read = readCipherText(position + totalRead, Math.min(length - totalRead, cipherBuffer.length));
+
+      if (read <= 0) break;
+
+      update(read, buffer, offset + totalRead);
+      totalRead += read;
+    }
+
+    cipherPosition = position + totalRead;
+
+    return totalRead == 0 ? -1 : totalRead;
+  }
+
+  /**
+   * @return A stream over the plaintext starting at {@code offset}. Closing the stream closes
+   *         this reader.
+   */
+  public @NonNull InputStream asInputStream(long offset) {
+    return new ReaderInputStream(offset);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) return;
+
+    closed = true;
+    bufferPool.release(cipherBuffer);
+    cipherBuffer = null;
+    channel.close();
+  }
+
+  private boolean seek(long position) throws IOException {
+    int  remainder  = (int) (position % BLOCK_SIZE);
+    long blockStart = position - remainder;
+
+    initCipher(blockStart / BLOCK_SIZE);
+    cipherPosition = -1;
+
+    if (remainder > 0) {
+      if (readCipherText(blockStart, remainder) < remainder) {
+        return false;
+      }
+
+      update(remainder, remainderBuffer, 0);
+    }
+
+    cipherPosition = position;
+    return true;
+  }
+
+  private void initCipher(long counter) {
+    try {
+      Conversions.longTo4ByteArray(iv, 12, counter);
+      cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private int readCipherText(long position, int length) throws IOException {
+    ByteBuffer target = ByteBuffer.wrap(cipherBuffer, 0, length);
+
+    while (target.hasRemaining()) {
+      int read = channel.read(target, headerLength + position + target.position());
+      if (read == -1) break;
+    }
+
+    return target.position();
+  }
+
+  private void update(int length, @NonNull byte[] output, int outputOffset) throws IOException {
+    try {
+      cipher.update(cipherBuffer, 0, length, output, outputOffset);
+    } catch (ShortBufferException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private class ReaderInputStream extends InputStream {
+
+    private final byte[] single = new byte[1];
+
+    private long position;
+
+    private ReaderInputStream(long position) {
+      this.position = position;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = read(single, 0, 1);
+      return read == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      int read = ModernDecryptingPartReader.this.read(position, buffer, offset, length);
+
+      if (read > 0) position += read;
+
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = Math.max(0, Math.min(n, getSize() - position));
+      position += skipped;
+      return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+      ModernDecryptingPartReader.this.close();
+    }
+  }
+}
@@ -46,13 +46,14 @@ import org.thoughtcrime.securesms.attachments.DatabaseAttachment;
 import org.thoughtcrime.securesms.blurhash.BlurHash;
 import org.thoughtcrime.securesms.crypto.AttachmentSecret;
 import org.thoughtcrime.securesms.crypto.ClassicDecryptingPartInputStream;
-import org.thoughtcrime.securesms.crypto.ModernDecryptingPartInputStream;
+import org.thoughtcrime.securesms.crypto.ModernDecryptingPartReader;
 import org.thoughtcrime.securesms.crypto.ModernEncryptingPartOutputStream;
 import org.thoughtcrime.securesms.database.helpers.SQLCipherOpenHelper;
 import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.mms.MediaStream;
 import org.thoughtcrime.securesms.mms.MmsException;
 import org.thoughtcrime.securesms.mms.PartAuthority;
+import org.thoughtcrime.securesms.mms.PartUriParser;
 import org.thoughtcrime.securesms.stickers.StickerLocator;
 import org.thoughtcrime.securesms.util.Base64;
 import org.thoughtcrime.securesms.util.BitmapDecodingException;
@@ -126,6 +127,12 @@ public class AttachmentDatabase extends Database {
   public static final int TRANSFER_PROGRESS_PENDING = 2;
   public static final int TRANSFER_PROGRESS_FAILED  = 3;
 
+  /**
+   * Stands in for the message ID of attachments that were inserted to be pre-uploaded while their
+   * message is still being composed.
+   */
+  public static final long PREUPLOAD_MESSAGE_ID = -8675309;
+
   private static final String PART_ID_WHERE     = ROW_ID + " = ? AND " + UNIQUE_ID + " = ?";
   private static final String PART_ID_WHERE_NOT = ROW_ID + " != ? AND " + UNIQUE_ID + " != ?";
 
@@ -179,6 +186,26 @@ public class AttachmentDatabase extends Database {
     else                    return dataStream;
   }
 
+  /**
+   * Returns a random access reader over the attachment data, or null if the attachment is stored
+   * in the classic format, which does not support random access.
+   */
+  public @Nullable ModernDecryptingPartReader getAttachmentReader(@NonNull AttachmentId attachmentId)
+      throws IOException
+  {
+    DataInfo dataInfo = getAttachmentDataFileInfo(attachmentId, DATA);
+
+    if (dataInfo == null) {
+      throw new IOException("No data for: " + attachmentId);
+    }
+
+    if (dataInfo.random != null && dataInfo.random.length == 32) {
+      return ModernDecryptingPartReader.createFor(attachmentSecret, dataInfo.random, dataInfo.file);
+    } else {
+      return null;
+    }
+  }
+
   public @NonNull InputStream getThumbnailStream(@NonNull AttachmentId attachmentId)
       throws IOException
   {
@@ -391,6 +418,32 @@ public class AttachmentDatabase extends Database {
     }
   }
 
+  /**
+   * Deletes pre-uploaded attachments that were inserted before the given time and never ended up in
+   * a message, like those of a process that was killed while the user was composing.
+   */
+  public void deleteAbandonedPreUploadedAttachments(long insertedBefore) {
+    SQLiteDatabase     database  = databaseHelper.getReadableDatabase();
+    String             query     = MMS_ID + " = ? AND " + UNIQUE_ID + " < ?";
+    String[]           args      = new String[] { String.valueOf(PREUPLOAD_MESSAGE_ID), String.valueOf(insertedBefore) };
+    List<AttachmentId> abandoned = new LinkedList<>();
+
+    try (Cursor cursor = database.query(TABLE_NAME, new String[] { ROW_ID, UNIQUE_ID }, query, args, null, null, null)) {
+      while (cursor != null && cursor.moveToNext()) {
+        abandoned.add(new AttachmentId(cursor.getLong(cursor.getColumnIndexOrThrow(ROW_ID)),
+                                       cursor.getLong(cursor.getColumnIndexOrThrow(UNIQUE_ID))));
+      }
+    }
+
+    if (abandoned.size() > 0) {
+      Log.i(TAG, "Deleting " + abandoned.size() + " abandoned pre-uploaded attachment(s).");
+    }
+
+    for (AttachmentId attachmentId : abandoned) {
+      deleteAttachment(attachmentId);
+    }
+  }
+
   @SuppressWarnings("ResultOfMethodCallIgnored")
   void deleteAllAttachments() {
     SQLiteDatabase database = databaseHelper.getWritableDatabase();
@@ -558,9 +611,16 @@ public class AttachmentDatabase extends Database {
     Map<Attachment, AttachmentId> insertedAttachments = new HashMap<>();
 
     for (Attachment attachment : attachments) {
-      AttachmentId attachmentId = insertAttachment(mmsId, attachment, attachment.isQuote());
-      insertedAttachments.put(attachment, attachmentId);
-      Log.i(TAG, "Inserted attachment at ID: " + attachmentId);
+      if (isPreUpload(attachment)) {
+        AttachmentId attachmentId = ((DatabaseAttachment) attachment).getAttachmentId();
+        updateMessageId(attachmentId, mmsId);
+        insertedAttachments.put(attachment, attachmentId);
+        Log.i(TAG, "Moved pre-uploaded attachment at ID: " + attachmentId);
+      } else {
+        AttachmentId attachmentId = insertAttachment(mmsId, attachment, attachment.isQuote());
+        insertedAttachments.put(attachment, attachmentId);
+        Log.i(TAG, "Inserted attachment at ID: " + attachmentId);
+      }
     }
 
     for (Attachment attachment : quoteAttachment) {
@@ -572,6 +632,47 @@ public class AttachmentDatabase extends Database {
     return insertedAttachments;
   }
 
+  /**
+   * Inserts an attachment that doesn't belong to a message yet, so that it can be compressed and
+   * uploaded while the user is still composing. Passing the returned attachment as part of an
+   * outgoing message moves it over to that message instead of inserting a copy.
+   */
+  public @NonNull DatabaseAttachment insertAttachmentForPreUpload(@NonNull Attachment attachment)
+      throws MmsException
+  {
+    AttachmentId       attachmentId       = insertAttachment(PREUPLOAD_MESSAGE_ID, attachment, attachment.isQuote());
+    DatabaseAttachment databaseAttachment = getAttachment(attachmentId);
+
+    if (databaseAttachment == null) {
+      throw new MmsException("Failed to find the attachment that was just inserted.");
+    }
+
+    return databaseAttachment;
+  }
+
+  public void updateAttachmentCaption(@NonNull AttachmentId id, @Nullable String caption) {
+    ContentValues values = new ContentValues(1);
+    values.put(CAPTION, caption);
+
+    databaseHelper.getWritableDatabase().update(TABLE_NAME, values, PART_ID_WHERE, id.toStrings());
+  }
+
+  private void updateMessageId(@NonNull AttachmentId id, long mmsId) throws MmsException {
+    ContentValues values = new ContentValues(1);
+    values.put(MMS_ID, mmsId);
+
+    String   query = PART_ID_WHERE + " AND " + MMS_ID + " = ?";
+    String[] args  = new String[] { String.valueOf(id.getRowId()), String.valueOf(id.getUniqueId()), String.valueOf(PREUPLOAD_MESSAGE_ID) };
+
+    if (databaseHelper.getWritableDatabase().update(TABLE_NAME, values, query, args) == 0) {
+      throw new MmsException("Pre-uploaded attachment " + id + " no longer exists.");
+    }
+  }
+
+  private static boolean isPreUpload(@NonNull Attachment attachment) {
+    return attachment instanceof DatabaseAttachment && ((DatabaseAttachment) attachment).getMmsId() == PREUPLOAD_MESSAGE_ID;
+  }
+
   public void updateAttachmentData(@NonNull DatabaseAttachment databaseAttachment,
                                    @NonNull MediaStream mediaStream)
       throws MmsException
@@ -721,7 +822,15 @@ public class AttachmentDatabase extends Database {
 
     try {
       if (dataInfo.random != null && dataInfo.random.length == 32) {
-        return ModernDecryptingPartInputStream.createFor(attachmentSecret, dataInfo.random, dataInfo.file, offset);
+        ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, dataInfo.random, dataInfo.file);
+
+        if (offset > reader.getSize()) {
+          Log.w(TAG, "Offset beyond end of data: " + offset + " vs " + reader.getSize());
+          reader.close();
+          return null;
+        }
+
+        return reader.asInputStream(offset);
       } else {
         InputStream stream  = ClassicDecryptingPartInputStream.createFor(attachmentSecret, dataInfo.file);
         long        skipped = stream.skip(offset);
@@ -780,6 +889,15 @@ public class AttachmentDatabase extends Database {
                                               @Nullable AttachmentId attachmentId)
       throws MmsException
   {
+    if (!isThumbnail && PartAuthority.isAttachmentUri(uri)) {
+      DataInfo sourceDataInfo = getAttachmentDataFileInfo(new PartUriParser(uri).getPartId(), DATA);
+
+      if (sourceDataInfo != null && sourceDataInfo.hash != null && sourceDataInfo.file.exists()) {
+        Log.i(TAG, "[setAttachmentData] Source attachment data already stored, sharing it. " + sourceDataInfo.file.getAbsolutePath());
+        return sourceDataInfo;
+      }
+    }
+
     try {
       InputStream inputStream = PartAuthority.getAttachmentStream(context, uri);
       return setAttachmentData(inputStream, isThumbnail, attachmentId);
@@ -23,14 +23,18 @@ import org.whispersystems.libsignal.IdentityKey;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public abstract class MessagingDatabase extends Database implements MmsSmsColumns {
 
   private static final String TAG = MessagingDatabase.class.getSimpleName();
 
+  private static final int DELETE_BATCH_SIZE = 500;
+
   public MessagingDatabase(Context context, SQLCipherOpenHelper databaseHelper) {
     super(context, databaseHelper);
   }
@@ -92,6 +96,31 @@ public abstract class MessagingDatabase extends Database implements MmsSmsColumn
     }
   }
 
+  /**
+   * Deletes the rows for the provided message ids without updating their threads or notifying
+   * listeners. Returns the ids of the threads that contained them so the caller can recompute
+   * each affected thread once.
+   */
+  @NonNull Set<Long> deleteMessageRows(@NonNull List<Long> messageIds) {
+    SQLiteDatabase db        = databaseHelper.getWritableDatabase();
+    Set<Long>      threadIds = new HashSet<>();
+
+    for (List<Long> batch : Util.chunk(messageIds, DELETE_BATCH_SIZE)) {
+      String   query = ID + " IN (" + Util.join(Stream.of(batch).map(id -> "?").toList(), ",") + ")";
+      String[] args  = Stream.of(batch).map(String::valueOf).toArray(String[]::new);
+
+      try (Cursor cursor = db.query(true, getTableName(), new String[] { THREAD_ID }, query, args, null, null, null, null)) {
+        while (cursor != null && cursor.moveToNext()) {
+          threadIds.add(cursor.getLong(0));
+        }
+      }
+
+      db.delete(getTableName(), query, args);
+    }
+
+    return threadIds;
+  }
+
   private String getOutgoingInsecureMessageClause() {
     return "(" + getTypeField() + " & " + Types.BASE_TYPE_MASK + ") = " + Types.BASE_SENT_TYPE + " AND NOT (" + getTypeField() + " & " + Types.SECURE_MESSAGE_BIT + ")";
   }
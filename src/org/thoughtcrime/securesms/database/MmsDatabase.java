@@ -1233,30 +1233,34 @@ public class MmsDatabase extends MessagingDatabase {
     }
   }
 
-  /*package*/void deleteMessagesInThreadBeforeDate(long threadId, long date) {
-    Cursor cursor = null;
-
-    try {
-      SQLiteDatabase db = databaseHelper.getReadableDatabase();
-      String where      = THREAD_ID + " = ? AND (CASE (" + MESSAGE_BOX + " & " + Types.BASE_TYPE_MASK + ") ";
-
-      for (long outgoingType : Types.OUTGOING_MESSAGE_TYPES) {
-        where += " WHEN " + outgoingType + " THEN " + DATE_SENT + " < " + date;
-      }
+  /*package*/ int deleteMessagesInThreadBeforeDate(long threadId, long date, int limit) {
+    SQLiteDatabase db         = databaseHelper.getWritableDatabase();
+    List<Long>     messageIds = new LinkedList<>();
+    String         where      = THREAD_ID + " = ? AND (CASE (" + MESSAGE_BOX + " & " + Types.BASE_TYPE_MASK + ") ";
 
-      where += (" ELSE " + DATE_RECEIVED + " < " + date + " END)");
+    for (long outgoingType : Types.OUTGOING_MESSAGE_TYPES) {
+      where += " WHEN " + outgoingType + " THEN " + DATE_SENT + " < " + date;
+    }
 
-      cursor = db.query(TABLE_NAME, new String[] {ID}, where, new String[] {threadId+""}, null, null, null);
+    where += (" ELSE " + DATE_RECEIVED + " < " + date + " END)");
 
+    try (Cursor cursor = db.query(TABLE_NAME, new String[] {ID}, where, new String[] {threadId+""}, null, null, null, String.valueOf(limit))) {
       while (cursor != null && cursor.moveToNext()) {
-        Log.i("MmsDatabase", "Trimming: " + cursor.getLong(0));
-        delete(cursor.getLong(0));
+        messageIds.add(cursor.getLong(0));
       }
+    }
 
-    } finally {
-      if (cursor != null)
-        cursor.close();
+    AttachmentDatabase   attachmentDatabase   = DatabaseFactory.getAttachmentDatabase(context);
+    GroupReceiptDatabase groupReceiptDatabase = DatabaseFactory.getGroupReceiptDatabase(context);
+
+    for (long messageId : messageIds) {
+      attachmentDatabase.deleteAttachmentsForMessage(messageId);
+      groupReceiptDatabase.deleteRowsForMessage(messageId);
     }
+
+    deleteMessageRows(messageIds);
+
+    return messageIds.size();
   }
 
 
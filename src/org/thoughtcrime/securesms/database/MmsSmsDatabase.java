@@ -156,6 +156,48 @@ public class MmsSmsDatabase extends Database {
     return count;
   }
 
+  /**
+   * Deletes a batch of messages in a single transaction. Each affected thread is recomputed and
+   * notified once, rather than once per deleted message.
+   */
+  public void deleteMessages(@NonNull List<Long> smsIds, @NonNull List<Long> mmsIds) {
+    if (smsIds.isEmpty() && mmsIds.isEmpty()) {
+      return;
+    }
+
+    AttachmentDatabase   attachmentDatabase   = DatabaseFactory.getAttachmentDatabase(context);
+    GroupReceiptDatabase groupReceiptDatabase = DatabaseFactory.getGroupReceiptDatabase(context);
+    ThreadDatabase       threadDatabase       = DatabaseFactory.getThreadDatabase(context);
+    SQLiteDatabase       db                   = databaseHelper.getWritableDatabase();
+    Set<Long>            threadIds            = new HashSet<>();
+
+    db.beginTransaction();
+    try {
+      for (long mmsId : mmsIds) {
+        attachmentDatabase.deleteAttachmentsForMessage(mmsId);
+        groupReceiptDatabase.deleteRowsForMessage(mmsId);
+      }
+
+      threadIds.addAll(DatabaseFactory.getSmsDatabase(context).deleteMessageRows(smsIds));
+      threadIds.addAll(DatabaseFactory.getMmsDatabase(context).deleteMessageRows(mmsIds));
+
+      for (long threadId : threadIds) {
+        threadDatabase.update(threadId, false);
+      }
+
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+
+    notifyConversationListeners(threadIds);
+
+    if (!mmsIds.isEmpty()) {
+      notifyStickerListeners();
+      notifyStickerPackListeners();
+    }
+  }
+
   public int getInsecureSentCount(long threadId) {
     int count  = DatabaseFactory.getSmsDatabase(context).getInsecureMessagesSentForThread(threadId);
     count     += DatabaseFactory.getMmsDatabase(context).getInsecureMessagesSentForThread(threadId);
@@ -249,6 +291,30 @@ public class MmsSmsDatabase extends Database {
     return -1;
   }
 
+  /**
+   * Returns the received date of the message at the given position in the conversation, counting
+   * from the most recent message, or -1 if the conversation is not that long. Only the narrow
+   * (thread_id, date_received) indexes are touched, so this is cheap even for very long threads.
+   */
+  public long getConversationDateReceivedAtPosition(long threadId, int position) {
+    String query = "SELECT " + MmsSmsColumns.NORMALIZED_DATE_RECEIVED + " FROM (" +
+                     "SELECT " + MmsDatabase.DATE_RECEIVED + " AS " + MmsSmsColumns.NORMALIZED_DATE_RECEIVED +
+                     " FROM " + MmsDatabase.TABLE_NAME + " WHERE " + MmsDatabase.THREAD_ID + " = ?" +
+                     " UNION ALL " +
+                     "SELECT " + SmsDatabase.DATE_RECEIVED + " AS " + MmsSmsColumns.NORMALIZED_DATE_RECEIVED +
+                     " FROM " + SmsDatabase.TABLE_NAME + " WHERE " + SmsDatabase.THREAD_ID + " = ?" +
+                   ") ORDER BY " + MmsSmsColumns.NORMALIZED_DATE_RECEIVED + " DESC LIMIT 1 OFFSET " + position;
+    String[] args = new String[] { String.valueOf(threadId), String.valueOf(threadId) };
+
+    try (Cursor cursor = databaseHelper.getReadableDatabase().rawQuery(query, args)) {
+      if (cursor != null && cursor.moveToFirst()) {
+        return cursor.getLong(0);
+      }
+    }
+
+    return -1;
+  }
+
   private Cursor queryTables(String[] projection, String selection, String order, String limit) {
     String[] mmsProjection = {MmsDatabase.DATE_SENT + " AS " + MmsSmsColumns.NORMALIZED_DATE_SENT,
                               MmsDatabase.DATE_RECEIVED + " AS " + MmsSmsColumns.NORMALIZED_DATE_RECEIVED,
@@ -771,7 +771,7 @@ public class SmsDatabase extends MessagingDatabase {
     db.delete(TABLE_NAME, THREAD_ID + " = ?", new String[] {threadId+""});
   }
 
-  /*package*/void deleteMessagesInThreadBeforeDate(long threadId, long date) {
+  /*package*/ int deleteMessagesInThreadBeforeDate(long threadId, long date, int limit) {
     SQLiteDatabase db = databaseHelper.getWritableDatabase();
     String where      = THREAD_ID + " = ? AND (CASE " + TYPE;
 
@@ -781,7 +781,7 @@ public class SmsDatabase extends MessagingDatabase {
 
     where += (" ELSE " + DATE_RECEIVED + " < " + date + " END)");
 
-    db.delete(TABLE_NAME, where, new String[] {threadId + ""});
+    return db.delete(TABLE_NAME, ID + " IN (SELECT " + ID + " FROM " + TABLE_NAME + " WHERE " + where + " LIMIT " + limit + ")", new String[] {threadId + ""});
   }
 
   /*package*/ void deleteThreads(Set<Long> threadIds) {
@@ -29,6 +29,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class StickerDatabase extends Database {
 
@@ -71,7 +73,9 @@ public class StickerDatabase extends Database {
 
   private static final String DIRECTORY = "stickers";
 
-  private final AttachmentSecret attachmentSecret;
+  private final AttachmentSecret   attachmentSecret;
+  private final StickerLookupCache lookupCache = new StickerLookupCache();
+  private final CacheLoader        cacheLoader = new CacheLoader();
 
   public StickerDatabase(Context context, SQLCipherOpenHelper databaseHelper, AttachmentSecret attachmentSecret) {
     super(context, databaseHelper);
@@ -79,7 +83,72 @@ public class StickerDatabase extends Database {
   }
 
   public void insertSticker(@NonNull IncomingSticker sticker, @NonNull InputStream dataStream) throws IOException {
-    FileInfo      fileInfo      = saveStickerImage(dataStream);
+    FileInfo fileInfo = saveStickerImage(dataStream);
+    long     id       = insertStickerRow(databaseHelper.getWritableDatabase(), sticker, fileInfo);
+
+    if (id > 0) {
+      lookupCache.invalidate();
+      notifyStickerListeners();
+
+      if (sticker.isCover()) {
+        notifyStickerPackListeners();
+
+        if (sticker.isInstalled()) {
+          broadcastInstallEvent(sticker.getPackId());
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a sticker image to disk without touching the database, so that many stickers can be
+   * downloaded in parallel and then added together with {@link #insertStickers(List)}.
+   */
+  public @NonNull SavedSticker saveSticker(@NonNull IncomingSticker sticker, @NonNull InputStream dataStream) throws IOException {
+    return new SavedSticker(sticker, saveStickerImage(dataStream));
+  }
+
+  /**
+   * Inserts stickers previously written with {@link #saveSticker(IncomingSticker, InputStream)} in
+   * a single transaction, notifying listeners once for the whole batch.
+   */
+  public void insertStickers(@NonNull List<SavedSticker> stickers) {
+    SQLiteDatabase db       = databaseHelper.getWritableDatabase();
+    boolean        inserted = false;
+    String         cover    = null;
+
+    db.beginTransaction();
+
+    try {
+      for (SavedSticker saved : stickers) {
+        if (insertStickerRow(db, saved.sticker, saved.fileInfo) > 0) {
+          inserted = true;
+
+          if (saved.sticker.isCover() && saved.sticker.isInstalled()) {
+            cover = saved.sticker.getPackId();
+          }
+        } else {
+          saved.delete();
+        }
+      }
+
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+
+    if (inserted) {
+      lookupCache.invalidate();
+      notifyStickerListeners();
+      notifyStickerPackListeners();
+    }
+
+    if (cover != null) {
+      broadcastInstallEvent(cover);
+    }
+  }
+
+  private long insertStickerRow(@NonNull SQLiteDatabase db, @NonNull IncomingSticker sticker, @NonNull FileInfo fileInfo) {
     ContentValues contentValues = new ContentValues();
 
     contentValues.put(PACK_ID, sticker.getPackId());
@@ -94,19 +163,7 @@ public class StickerDatabase extends Database {
     contentValues.put(FILE_LENGTH, fileInfo.getLength());
     contentValues.put(FILE_RANDOM, fileInfo.getRandom());
 
-    long id = databaseHelper.getWritableDatabase().insert(TABLE_NAME, null, contentValues);
-
-    if (id > 0) {
-      notifyStickerListeners();
-
-      if (sticker.isCover()) {
-        notifyStickerPackListeners();
-
-        if (sticker.isInstalled()) {
-          broadcastInstallEvent(sticker.getPackId());
-        }
-      }
-    }
+    return db.insert(TABLE_NAME, null, contentValues);
   }
 
   public @Nullable StickerRecord getSticker(@NonNull String packId, int stickerId, boolean isCover) {
@@ -136,14 +193,12 @@ public class StickerDatabase extends Database {
     return cursor;
   }
 
-  public @Nullable Cursor getStickersByEmoji(@NonNull String emoji) {
-    String   selection = EMOJI + " LIKE ? AND " + COVER + " = ?";
-    String[] args      = new String[] { "%"+emoji+"%", "0" };
-
-    Cursor cursor = databaseHelper.getReadableDatabase().query(TABLE_NAME, null, selection, args, null, null, null);
-    setNotifyStickerListeners(cursor);
-
-    return cursor;
+  /**
+   * @return Stickers whose emoji contains the provided emoji. Served from memory after the first
+   *         call, until the stickers change.
+   */
+  public @NonNull List<StickerRecord> getStickersByEmoji(@NonNull String emoji) {
+    return lookupCache.getStickersByEmoji(emoji, cacheLoader);
   }
 
   public @Nullable Cursor getAllStickerPacks() {
@@ -170,6 +225,14 @@ public class StickerDatabase extends Database {
     return cursor;
   }
 
+  /**
+   * Like {@link #getRecentlyUsedStickers(int)}, but served from memory after the first call and
+   * kept in order as stickers are used.
+   */
+  public @NonNull List<StickerRecord> getRecentlyUsedStickerList(int limit) {
+    return lookupCache.getRecents(limit, cacheLoader);
+  }
+
   public @Nullable Cursor getRecentlyUsedStickers(int limit) {
     SQLiteDatabase db        = databaseHelper.getReadableDatabase();
     String         selection = LAST_USED + " > ? AND " + COVER + " = ?";
@@ -222,6 +285,7 @@ public class StickerDatabase extends Database {
 
     databaseHelper.getWritableDatabase().update(TABLE_NAME, values, selection, args);
 
+    lookupCache.onStickerUsed(rowId);
     notifyStickerListeners();
     notifyStickerPackListeners();
   }
@@ -240,11 +304,11 @@ public class StickerDatabase extends Database {
                            ")";
     String[]      args = new String[] { "0" };
 
+    boolean performedDelete = false;
+
     db.beginTransaction();
 
     try {
-      boolean performedDelete = false;
-
       try (Cursor cursor = db.rawQuery(query, args)) {
         while (cursor != null && cursor.moveToNext()) {
           String packId = cursor.getString(cursor.getColumnIndexOrThrow(PACK_ID));
@@ -257,14 +321,15 @@ public class StickerDatabase extends Database {
       }
 
       db.setTransactionSuccessful();
-
-      if (performedDelete) {
-        notifyStickerPackListeners();
-        notifyStickerListeners();
-      }
     } finally {
       db.endTransaction();
     }
+
+    if (performedDelete) {
+      lookupCache.invalidate();
+      notifyStickerPackListeners();
+      notifyStickerListeners();
+    }
   }
 
   public void uninstallPack(@NonNull String packId) {
@@ -277,11 +342,19 @@ public class StickerDatabase extends Database {
       deleteStickersInPackExceptCover(db, packId);
 
       db.setTransactionSuccessful();
-      notifyStickerPackListeners();
-      notifyStickerListeners();
     } finally {
       db.endTransaction();
     }
+
+    lookupCache.invalidate();
+    notifyStickerPackListeners();
+    notifyStickerListeners();
+  }
+
+  @Override
+  public void reset(SQLCipherOpenHelper databaseHelper) {
+    super.reset(databaseHelper);
+    lookupCache.invalidate();
   }
 
   private void updatePackInstalled(@NonNull SQLiteDatabase db, @NonNull String packId, boolean installed) {
@@ -307,9 +380,15 @@ public class StickerDatabase extends Database {
     File                       partsDirectory = context.getDir(DIRECTORY, Context.MODE_PRIVATE);
     File                       file           = File.createTempFile("sticker", ".mms", partsDirectory);
     Pair<byte[], OutputStream> out            = ModernEncryptingPartOutputStream.createFor(attachmentSecret, file, false);
-    long                       length         = Util.copy(inputStream, out.second);
 
-    return new FileInfo(file, length, out.first);
+    try {
+      long length = Util.copy(inputStream, out.second);
+      return new FileInfo(file, length, out.first);
+    } catch (IOException e) {
+      Util.close(out.second);
+      file.delete();
+      throw e;
+    }
   }
 
   private void deleteSticker(@NonNull SQLiteDatabase db, long rowId, @Nullable String filePath) {
@@ -410,6 +489,56 @@ public class StickerDatabase extends Database {
     }
   }
 
+  private final class CacheLoader implements StickerLookupCache.Loader {
+
+    @Override
+    public @NonNull List<StickerRecord> loadStickers() {
+      String   selection = COVER + " = ?";
+      String[] args      = new String[] { "0" };
+
+      return readStickers(databaseHelper.getReadableDatabase().query(TABLE_NAME, null, selection, args, null, null, _ID + " ASC"));
+    }
+
+    @Override
+    public @NonNull List<StickerRecord> loadRecents(int limit) {
+      return readStickers(getRecentlyUsedStickers(limit));
+    }
+
+    private @NonNull List<StickerRecord> readStickers(@Nullable Cursor cursor) {
+      List<StickerRecord> stickers = new ArrayList<>();
+
+      try (StickerRecordReader reader = new StickerRecordReader(cursor)) {
+        StickerRecord sticker;
+        while ((sticker = reader.getNext()) != null) {
+          stickers.add(sticker);
+        }
+      }
+
+      return stickers;
+    }
+  }
+
+  public static final class SavedSticker {
+    private final IncomingSticker sticker;
+    private final FileInfo        fileInfo;
+
+    private SavedSticker(@NonNull IncomingSticker sticker, @NonNull FileInfo fileInfo) {
+      this.sticker  = sticker;
+      this.fileInfo = fileInfo;
+    }
+
+    public @NonNull IncomingSticker getSticker() {
+      return sticker;
+    }
+
+    /**
+     * Removes the image from disk, for stickers that end up not being inserted.
+     */
+    public void delete() {
+      fileInfo.getFile().delete();
+    }
+  }
+
   public static final class StickerRecordReader implements Closeable {
 
     private final Cursor cursor;
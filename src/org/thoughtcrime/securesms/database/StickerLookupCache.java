@@ -0,0 +1,91 @@
+package org.thoughtcrime.securesms.database;
+
+import androidx.annotation.NonNull;
+
+import org.thoughtcrime.securesms.database.model.StickerRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the installed stickers grouped by their emoji, plus the most recently used
+ * stickers, so that compose box suggestions and the recents tab can be served without a query.
+ *
+ * Both are loaded lazily through a {@link Loader} and dropped by {@link StickerDatabase} whenever
+ * it changes the rows they were built from. Loads happen while holding the lock, so a load can
+ * never race with an invalidation that follows a committed write.
+ */
+final class StickerLookupCache {
+
+  private Map<String, List<StickerRecord>> stickersByEmoji;
+  private List<StickerRecord>              recents;
+  private int                              recentsLimit;
+
+  synchronized @NonNull List<StickerRecord> getStickersByEmoji(@NonNull String emoji, @NonNull Loader loader) {
+    if (stickersByEmoji == null) {
+      stickersByEmoji = new LinkedHashMap<>();
+
+      for (StickerRecord sticker : loader.loadStickers()) {
+        List<StickerRecord> group = stickersByEmoji.get(sticker.getEmoji());
+
+        if (group == null) {
+          group = new ArrayList<>(1);
+          stickersByEmoji.put(sticker.getEmoji(), group);
+        }
+
+        group.add(sticker);
+      }
+    }
+
+    List<StickerRecord> results = new ArrayList<>();
+    int                 groups  = 0;
+
+    for (Map.Entry<String, List<StickerRecord>> entry : stickersByEmoji.entrySet()) {
+      if (entry.getKey().contains(emoji)) {
+        results.addAll(entry.getValue());
+        groups++;
+      }
+    }
+
+    if (groups > 1) {
+      Collections.sort(results, (lhs, rhs) -> Long.compare(lhs.getRowId(), rhs.getRowId()));
+    }
+
+    return results;
+  }
+
+  synchronized @NonNull List<StickerRecord> getRecents(int limit, @NonNull Loader loader) {
+    if (recents == null || recentsLimit < limit) {
+      recents      = new ArrayList<>(loader.loadRecents(limit));
+      recentsLimit = limit;
+    }
+
+    return new ArrayList<>(recents.subList(0, Math.min(limit, recents.size())));
+  }
+
+  synchronized void onStickerUsed(long rowId) {
+    if (recents == null) return;
+
+    for (int i = 0; i < recents.size(); i++) {
+      if (recents.get(i).getRowId() == rowId) {
+        recents.add(0, recents.remove(i));
+        return;
+      }
+    }
+
+    recents = null;
+  }
+
+  synchronized void invalidate() {
+    stickersByEmoji = null;
+    recents         = null;
+  }
+
+  interface Loader {
+    @NonNull List<StickerRecord> loadStickers();
+    @NonNull List<StickerRecord> loadRecents(int limit);
+  }
+}
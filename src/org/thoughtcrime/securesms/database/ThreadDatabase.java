@@ -50,6 +50,7 @@ import org.whispersystems.libsignal.util.Pair;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -58,6 +59,8 @@ public class ThreadDatabase extends Database {
 
   private static final String TAG = ThreadDatabase.class.getSimpleName();
 
+  private static final int TRIM_BATCH_SIZE = 500;
+
   public  static final String TABLE_NAME             = "thread";
   public  static final String ID                     = "_id";
   public  static final String DATE                   = "date";
@@ -96,6 +99,7 @@ public class ThreadDatabase extends Database {
   public static final String[] CREATE_INDEXS = {
     "CREATE INDEX IF NOT EXISTS thread_recipient_ids_index ON " + TABLE_NAME + " (" + RECIPIENT_ID + ");",
     "CREATE INDEX IF NOT EXISTS archived_count_index ON " + TABLE_NAME + " (" + ARCHIVED + ", " + MESSAGE_COUNT + ");",
+    "CREATE INDEX IF NOT EXISTS thread_archived_date_index ON " + TABLE_NAME + " (" + ARCHIVED + ", " + DATE + ");",
   };
 
   private static final String[] THREAD_PROJECTION = {
@@ -217,53 +221,59 @@ public class ThreadDatabase extends Database {
   }
 
   public void trimAllThreads(int length, ProgressListener listener) {
-    Cursor cursor   = null;
-    int threadCount = 0;
-    int complete    = 0;
-
-    try {
-      cursor = this.getConversationList();
-
-      if (cursor != null)
-        threadCount = cursor.getCount();
+    List<Long> threadIds = new LinkedList<>();
 
+    try (Cursor cursor = databaseHelper.getReadableDatabase().query(TABLE_NAME, new String[] {ID}, null, null, null, null, null)) {
       while (cursor != null && cursor.moveToNext()) {
-        long threadId = cursor.getLong(cursor.getColumnIndexOrThrow(ID));
-        trimThread(threadId, length);
-
-        listener.onProgress(++complete, threadCount);
+        threadIds.add(cursor.getLong(0));
       }
-    } finally {
-      if (cursor != null)
-        cursor.close();
+    }
+
+    int complete = 0;
+
+    for (long threadId : threadIds) {
+      trimThread(threadId, length);
+      listener.onProgress(++complete, threadIds.size());
     }
   }
 
   public void trimThread(long threadId, int length) {
-    Log.i("ThreadDatabase", "Trimming thread: " + threadId + " to: " + length);
-    Cursor cursor = null;
+    MmsSmsDatabase mmsSmsDatabase = DatabaseFactory.getMmsSmsDatabase(context);
 
-    try {
-      cursor = DatabaseFactory.getMmsSmsDatabase(context).getConversation(threadId);
+    if (length <= 0 || mmsSmsDatabase.getConversationCount(threadId) <= length) {
+      return;
+    }
 
-      if (cursor != null && length > 0 && cursor.getCount() > length) {
-        Log.w("ThreadDatabase", "Cursor count is greater than length!");
-        cursor.moveToPosition(length - 1);
+    Log.i(TAG, "Trimming thread: " + threadId + " to: " + length);
 
-        long lastTweetDate = cursor.getLong(cursor.getColumnIndexOrThrow(MmsSmsColumns.NORMALIZED_DATE_RECEIVED));
+    long cutoffDate = mmsSmsDatabase.getConversationDateReceivedAtPosition(threadId, length - 1);
 
-        Log.i("ThreadDatabase", "Cut off tweet date: " + lastTweetDate);
+    if (cutoffDate < 0) {
+      return;
+    }
+
+    Log.i(TAG, "Cut off date: " + cutoffDate);
 
-        DatabaseFactory.getSmsDatabase(context).deleteMessagesInThreadBeforeDate(threadId, lastTweetDate);
-        DatabaseFactory.getMmsDatabase(context).deleteMessagesInThreadBeforeDate(threadId, lastTweetDate);
+    SmsDatabase    smsDatabase = DatabaseFactory.getSmsDatabase(context);
+    MmsDatabase    mmsDatabase = DatabaseFactory.getMmsDatabase(context);
+    SQLiteDatabase db          = databaseHelper.getWritableDatabase();
+    int            deleted;
 
-        update(threadId, false);
-        notifyConversationListeners(threadId);
+    do {
+      db.beginTransaction();
+      try {
+        deleted  = smsDatabase.deleteMessagesInThreadBeforeDate(threadId, cutoffDate, TRIM_BATCH_SIZE);
+        deleted += mmsDatabase.deleteMessagesInThreadBeforeDate(threadId, cutoffDate, TRIM_BATCH_SIZE);
+        db.setTransactionSuccessful();
+      } finally {
+        db.endTransaction();
       }
-    } finally {
-      if (cursor != null)
-        cursor.close();
-    }
+    } while (deleted > 0);
+
+    update(threadId, false);
+    notifyConversationListeners(threadId);
+    notifyStickerListeners();
+    notifyStickerPackListeners();
   }
 
   public List<MarkedMessageInfo> setAllThreadsRead() {
@@ -402,6 +412,25 @@ public class ThreadDatabase extends Database {
     return getConversationList("0");
   }
 
+  /**
+   * @return The recipients of the most recent unarchived conversations, newest first. Unlike
+   *         {@link #getConversationList()}, this doesn't join against the recipient and group
+   *         tables or build thread records.
+   */
+  public @NonNull List<RecipientId> getRecentConversationRecipientIds(int limit) {
+    SQLiteDatabase    db           = databaseHelper.getReadableDatabase();
+    List<RecipientId> recipientIds = new ArrayList<>(limit);
+    String            query        = ARCHIVED + " = ? AND " + MESSAGE_COUNT + " != 0";
+
+    try (Cursor cursor = db.query(TABLE_NAME, new String[] { RECIPIENT_ID }, query, new String[] { "0" }, null, null, DATE + " DESC", String.valueOf(limit))) {
+      while (cursor != null && cursor.moveToNext()) {
+        recipientIds.add(RecipientId.from(cursor.getLong(0)));
+      }
+    }
+
+    return recipientIds;
+  }
+
   public Cursor getArchivedConversationList() {
     return getConversationList("1");
   }
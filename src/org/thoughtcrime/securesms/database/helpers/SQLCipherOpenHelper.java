@@ -92,8 +92,9 @@ public class SQLCipherOpenHelper extends SQLiteOpenHelper {
   private static final int ATTACHMENT_CLEAR_HASHES          = 33;
   private static final int ATTACHMENT_CLEAR_HASHES_2        = 34;
   private static final int UUIDS                            = 35;
+  private static final int THREAD_DATE_INDEX                = 36;
 
-  private static final int    DATABASE_VERSION = 35;
+  private static final int    DATABASE_VERSION = 36;
   private static final String DATABASE_NAME    = "signal.db";
 
   private final Context        context;
@@ -620,6 +621,10 @@ public class SQLCipherOpenHelper extends SQLiteOpenHelper {
         db.execSQL("ALTER TABLE push ADD COLUMN source_uuid TEXT DEFAULT NULL");
       }
 
+      if (oldVersion < THREAD_DATE_INDEX) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS thread_archived_date_index ON thread (archived, date)");
+      }
+
       db.setTransactionSuccessful();
     } finally {
       db.endTransaction();
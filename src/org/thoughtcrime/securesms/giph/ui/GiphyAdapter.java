@@ -19,8 +19,11 @@ import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.bumptech.glide.load.engine.GlideException;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
+import com.bumptech.glide.request.FutureTarget;
 import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.DrawableImageViewTarget;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.transition.Transition;
 import com.bumptech.glide.util.ByteBufferUtil;
 
 import org.thoughtcrime.securesms.R;
@@ -32,7 +35,13 @@ import org.thoughtcrime.securesms.mms.GlideRequests;
 import org.thoughtcrime.securesms.util.Util;
 import org.thoughtcrime.securesms.util.ViewUtil;
 
+import java.io.File;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 
@@ -40,11 +49,21 @@ class GiphyAdapter extends RecyclerView.Adapter<GiphyAdapter.GiphyViewHolder> {
 
   private static final String TAG = GiphyAdapter.class.getSimpleName();
 
+  private static final int MAX_PLAYING   = 8;
+  private static final int PRELOAD_STILL = 12;
+  private static final int PRELOAD_GIF   = 4;
+
   private final Context       context;
   private final GlideRequests glideRequests;
 
+  private final Set<GiphyViewHolder>     playing  = new HashSet<>();
+  private final Set<GiphyViewHolder>     waiting  = new LinkedHashSet<>();
+  private final List<FutureTarget<File>> preloads = new LinkedList<>();
+
   private List<GiphyImage>     images;
   private OnItemClickListener  listener;
+  private int                  stillsPreloadedUntil;
+  private int                  gifsPreloadedUntil;
 
   class GiphyViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener, RequestListener<Drawable> {
 
@@ -53,6 +72,9 @@ class GiphyAdapter extends RecyclerView.Adapter<GiphyAdapter.GiphyViewHolder> {
     public ProgressBar          gifProgress;
     public volatile boolean     modelReady;
 
+    private @Nullable GifDrawable gif;
+    private boolean               attached;
+
     GiphyViewHolder(View view) {
       super(view);
       thumbnail   = ViewUtil.findById(view, R.id.thumbnail);
@@ -123,6 +145,7 @@ class GiphyAdapter extends RecyclerView.Adapter<GiphyAdapter.GiphyViewHolder> {
 
   public void setImages(@NonNull List<GiphyImage> images) {
     this.images = images;
+    clearPreloads();
     notifyDataSetChanged();
   }
 
@@ -143,8 +166,11 @@ class GiphyAdapter extends RecyclerView.Adapter<GiphyAdapter.GiphyViewHolder> {
   public void onBindViewHolder(@NonNull GiphyViewHolder holder, int position) {
     GiphyImage image = images.get(position);
 
+    stopPlayback(holder);
+
     holder.modelReady = false;
     holder.image      = image;
+    holder.gif        = null;
     holder.thumbnail.setAspectRatio(image.getGifAspectRatio());
     holder.gifProgress.setVisibility(View.GONE);
 
@@ -168,16 +194,113 @@ class GiphyAdapter extends RecyclerView.Adapter<GiphyAdapter.GiphyViewHolder> {
                    .diskCacheStrategy(DiskCacheStrategy.ALL)
                    .transition(DrawableTransitionOptions.withCrossFade())
                    .listener(holder)
-                   .into(holder.thumbnail);
+                   .into(new GifTarget(holder));
     }
   }
 
+  @Override
+  public void onViewAttachedToWindow(@NonNull GiphyViewHolder holder) {
+    super.onViewAttachedToWindow(holder);
+    holder.attached = true;
+    requestPlayback(holder);
+  }
+
+  @Override
+  public void onViewDetachedFromWindow(@NonNull GiphyViewHolder holder) {
+    super.onViewDetachedFromWindow(holder);
+    holder.attached = false;
+    stopPlayback(holder);
+  }
+
   @Override
   public void onViewRecycled(@NonNull GiphyViewHolder holder) {
     super.onViewRecycled(holder);
+    stopPlayback(holder);
+    holder.gif = null;
     glideRequests.clear(holder.thumbnail);
   }
 
+  /**
+   * Fetches the stills, and on devices with the memory to animate them the GIFs, for the items
+   * following the last visible one into the disk cache, so they are ready by the time they are
+   * scrolled to.
+   */
+  public void preload(int lastVisiblePosition) {
+    if (lastVisiblePosition < 0) return;
+
+    int stillsEnd = Math.min(images.size(), lastVisiblePosition + 1 + PRELOAD_STILL);
+    int gifsEnd   = Util.isLowMemory(context) ? 0 : Math.min(images.size(), lastVisiblePosition + 1 + PRELOAD_GIF);
+
+    for (Iterator<FutureTarget<File>> iterator = preloads.iterator(); iterator.hasNext(); ) {
+      FutureTarget<File> preload = iterator.next();
+
+      if (preload.isDone()) {
+        glideRequests.clear(preload);
+        iterator.remove();
+      }
+    }
+
+    for (int position = Math.max(stillsPreloadedUntil, lastVisiblePosition + 1); position < stillsEnd; position++) {
+      GiphyImage image = images.get(position);
+      preloads.add(glideRequests.downloadOnly()
+                                .load(new ChunkedImageUrl(image.getStillUrl(), image.getStillSize()))
+                                .submit());
+    }
+
+    for (int position = Math.max(gifsPreloadedUntil, lastVisiblePosition + 1); position < gifsEnd; position++) {
+      GiphyImage image = images.get(position);
+      preloads.add(glideRequests.downloadOnly()
+                                .load(new ChunkedImageUrl(image.getGifUrl(), image.getGifSize()))
+                                .submit());
+    }
+
+    stillsPreloadedUntil = Math.max(stillsPreloadedUntil, stillsEnd);
+    gifsPreloadedUntil   = Math.max(gifsPreloadedUntil, gifsEnd);
+  }
+
+  public void clearPreloads() {
+    for (FutureTarget<File> preload : preloads) {
+      glideRequests.clear(preload);
+    }
+
+    preloads.clear();
+    stillsPreloadedUntil = 0;
+    gifsPreloadedUntil   = 0;
+  }
+
+  /**
+   * Only {@link #MAX_PLAYING} attached cells animate at once, the rest stay on their first frame
+   * until a playing cell leaves the screen. Detached cells never keep decoding frames.
+   */
+  private void requestPlayback(@NonNull GiphyViewHolder holder) {
+    if (holder.gif == null || !holder.attached || playing.contains(holder)) return;
+
+    if (playing.size() < MAX_PLAYING) {
+      waiting.remove(holder);
+      playing.add(holder);
+      holder.gif.start();
+    } else {
+      holder.gif.stop();
+      waiting.add(holder);
+    }
+  }
+
+  private void stopPlayback(@NonNull GiphyViewHolder holder) {
+    waiting.remove(holder);
+
+    if (playing.remove(holder)) {
+      if (holder.gif != null) holder.gif.stop();
+
+      Iterator<GiphyViewHolder> next = waiting.iterator();
+
+      if (next.hasNext()) {
+        GiphyViewHolder waitingHolder = next.next();
+        next.remove();
+        requestPlayback(waitingHolder);
+      }
+    }
+  }
+
   @Override
   public int getItemCount() {
     return images.size();
@@ -187,6 +310,38 @@ class GiphyAdapter extends RecyclerView.Adapter<GiphyAdapter.GiphyViewHolder> {
     this.listener = listener;
   }
 
+  private class GifTarget extends DrawableImageViewTarget {
+
+    private final GiphyViewHolder holder;
+
+    GifTarget(@NonNull GiphyViewHolder holder) {
+      super(holder.thumbnail);
+      this.holder = holder;
+    }
+
+    @Override
+    public void onResourceReady(@NonNull Drawable resource, @Nullable Transition<? super Drawable> transition) {
+      super.onResourceReady(resource, transition);
+
+      if (resource instanceof GifDrawable) {
+        stopPlayback(holder);
+        holder.gif = (GifDrawable) resource;
+
+        if (holder.attached) requestPlayback(holder);
+        else                 holder.gif.stop();
+      }
+    }
+
+    @Override
+    public void onStart() {
+      super.onStart();
+
+      if (holder.gif != null && !playing.contains(holder)) {
+        holder.gif.stop();
+      }
+    }
+  }
+
   public interface OnItemClickListener {
     void onClick(GiphyViewHolder viewHolder);
   }
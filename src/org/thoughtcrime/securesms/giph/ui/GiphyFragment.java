@@ -21,6 +21,7 @@ import org.thoughtcrime.securesms.R;
 import org.thoughtcrime.securesms.giph.model.GiphyImage;
 import org.thoughtcrime.securesms.giph.net.GiphyLoader;
 import org.thoughtcrime.securesms.giph.util.InfiniteScrollListener;
+import org.thoughtcrime.securesms.giph.util.RecyclerViewPositionHelper;
 import org.thoughtcrime.securesms.mms.GlideApp;
 import org.thoughtcrime.securesms.util.TextSecurePreferences;
 import org.thoughtcrime.securesms.util.ViewUtil;
@@ -106,6 +107,17 @@ public abstract class GiphyFragment extends Fragment implements LoaderManager.Lo
   }
 
   private class GiphyScrollListener extends InfiniteScrollListener {
+
+    GiphyScrollListener() {
+      super(GiphyLoader.PAGE_SIZE / 2);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+      super.onScrolled(recyclerView, dx, dy);
+      giphyAdapter.preload(RecyclerViewPositionHelper.createHelper(recyclerView).findLastVisibleItemPosition());
+    }
+
     @Override
     public void onLoadMore(final int currentPage) {
       final Loader<List<GiphyImage>> loader = getLoaderManager().getLoader(0);
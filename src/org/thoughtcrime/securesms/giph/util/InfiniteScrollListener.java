@@ -11,12 +11,20 @@ public abstract class InfiniteScrollListener extends RecyclerView.OnScrollListen
 
   private int     previousTotal    = 0;    // The total number of items in the dataset after the last load
   private boolean loading          = true; // True if we are still waiting for the last set of data to load.
-  private int     visibleThreshold = 5;    // The minimum amount of items to have below your current scroll position before loading more.
+  private final int visibleThreshold;      // The minimum amount of items to have below your current scroll position before loading more.
 
   int firstVisibleItem, visibleItemCount, totalItemCount;
 
   private int currentPage = 1;
 
+  public InfiniteScrollListener() {
+    this(5);
+  }
+
+  public InfiniteScrollListener(int visibleThreshold) {
+    this.visibleThreshold = visibleThreshold;
+  }
+
   @Override
   public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
     super.onScrolled(recyclerView, dx, dy);
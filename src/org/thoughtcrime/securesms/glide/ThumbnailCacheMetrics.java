@@ -0,0 +1,67 @@
+package org.thoughtcrime.securesms.glide;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import org.thoughtcrime.securesms.logging.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records where conversation thumbnails were served from, so the disk cache budget can be tuned
+ * against real scrolling behavior. Loads served from memory or from the encrypted resource cache
+ * count as hits, anything that had to decrypt and decode the original attachment is a miss.
+ */
+public final class ThumbnailCacheMetrics implements RequestListener<Drawable> {
+
+  private static final String TAG = ThumbnailCacheMetrics.class.getSimpleName();
+
+  private static final long LOG_INTERVAL = 100;
+
+  private static final ThumbnailCacheMetrics INSTANCE = new ThumbnailCacheMetrics();
+
+  private final AtomicLong hits   = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public static ThumbnailCacheMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  private ThumbnailCacheMetrics() {}
+
+  @Override
+  public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+    return false;
+  }
+
+  @Override
+  public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target, DataSource dataSource, boolean isFirstResource) {
+    long total;
+
+    if (dataSource == DataSource.MEMORY_CACHE || dataSource == DataSource.RESOURCE_DISK_CACHE) {
+      total = hits.incrementAndGet() + misses.get();
+    } else {
+      total = misses.incrementAndGet() + hits.get();
+    }
+
+    if (total % LOG_INTERVAL == 0) {
+      Log.i(TAG, "Thumbnail cache hit rate: " + getHitCount() + "/" + total);
+    }
+
+    return false;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+}
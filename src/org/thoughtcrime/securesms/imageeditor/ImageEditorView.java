@@ -1,7 +1,9 @@
 package org.thoughtcrime.securesms.imageeditor;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Point;
@@ -75,6 +77,16 @@ public final class ImageEditorView extends FrameLayout {
   private EditSession editSession;
   private boolean     moreThanOnePointerUsedInSession;
 
+  /**
+   * While drawing, everything except the stroke in progress is rendered once into this bitmap, so
+   * each new point only redraws the one stroke rather than every element in the image.
+   */
+  @Nullable
+  private Bitmap          layerCache;
+  @Nullable
+  private EditorElement   layerCacheExclude;
+  private RendererContext layerCacheContext;
+
   public ImageEditorView(Context context) {
     super(context);
     init();
@@ -145,16 +157,88 @@ public final class ImageEditorView extends FrameLayout {
     if (rendererContext == null || rendererContext.canvas != canvas) {
       rendererContext = new RendererContext(getContext(), canvas, rendererReady, rendererInvalidate);
     }
+    EditorElement drawing = getDrawingElement();
+    boolean       cached  = drawing != null && updateLayerCache(drawing);
+
+    if (cached) {
+      canvas.drawBitmap(layerCache, 0, 0, null);
+    }
+
     rendererContext.save();
     try {
       rendererContext.canvasMatrix.initial(viewMatrix);
 
-      model.draw(rendererContext, editText.getCurrentTextEditorElement());
+      if (cached) {
+        model.drawOnly(rendererContext, drawing);
+      } else {
+        model.draw(rendererContext, editText.getCurrentTextEditorElement());
+      }
     } finally {
       rendererContext.restore();
     }
   }
 
+  private @Nullable EditorElement getDrawingElement() {
+    if (editSession instanceof DrawingSession && editText.getCurrentTextEditorElement() == null) {
+      return editSession.getSelected();
+    }
+    return null;
+  }
+
+  /**
+   * @return true iff {@link #layerCache} holds everything but the supplied element.
+   */
+  private boolean updateLayerCache(@NonNull EditorElement exclude) {
+    if (layerCache != null && layerCacheExclude == exclude) return true;
+
+    int width  = getWidth();
+    int height = getHeight();
+
+    if (width <= 0 || height <= 0) return false;
+
+    if (layerCache == null || layerCache.getWidth() != width || layerCache.getHeight() != height) {
+      releaseLayerCache();
+      try {
+        layerCache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+      } catch (OutOfMemoryError e) {
+        return false;
+      }
+      layerCacheContext = new RendererContext(getContext(), new Canvas(layerCache), layerCacheReady, layerCacheInvalidate);
+    } else {
+      layerCache.eraseColor(Color.TRANSPARENT);
+    }
+
+    layerCacheContext.save();
+    try {
+      layerCacheContext.canvasMatrix.initial(viewMatrix);
+      model.drawExcept(layerCacheContext, exclude);
+    } finally {
+      layerCacheContext.restore();
+    }
+
+    layerCacheExclude = exclude;
+    return true;
+  }
+
+  private void invalidateLayerCache() {
+    layerCacheExclude = null;
+  }
+
+  private void releaseLayerCache() {
+    if (layerCache != null) {
+      layerCache.recycle();
+      layerCache        = null;
+      layerCacheContext = null;
+    }
+    layerCacheExclude = null;
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    releaseLayerCache();
+  }
+
   private final RendererContext.Ready rendererReady = new RendererContext.Ready() {
     @Override
     public void onReady(@NonNull Renderer renderer, @Nullable Matrix cropMatrix, @Nullable Point size) {
@@ -165,6 +249,24 @@ public final class ImageEditorView extends FrameLayout {
 
   private final RendererContext.Invalidate rendererInvalidate = renderer -> invalidate();
 
+  private final RendererContext.Ready layerCacheReady = new RendererContext.Ready() {
+    @Override
+    public void onReady(@NonNull Renderer renderer, @Nullable Matrix cropMatrix, @Nullable Point size) {
+      invalidateLayerCache();
+      rendererReady.onReady(renderer, cropMatrix, size);
+    }
+  };
+
+  private final RendererContext.Invalidate layerCacheInvalidate = renderer -> {
+    invalidateLayerCache();
+    invalidate();
+  };
+
+  private void onModelInvalidated() {
+    invalidateLayerCache();
+    invalidate();
+  }
+
   @Override
   protected void onSizeChanged(int w, int h, int oldw, int oldh) {
     super.onSizeChanged(w, h, oldw, oldh);
@@ -197,6 +299,7 @@ public final class ImageEditorView extends FrameLayout {
 
     model.setVisibleViewPort(visibleViewPort);
 
+    invalidateLayerCache();
     invalidate();
   }
 
@@ -207,9 +310,10 @@ public final class ImageEditorView extends FrameLayout {
         this.model.setUndoRedoStackListener(null);
       }
       this.model = model;
-      this.model.setInvalidate(this::invalidate);
+      this.model.setInvalidate(this::onModelInvalidated);
       this.model.setUndoRedoStackListener(this::onUndoRedoAvailabilityChanged);
       this.model.setVisibleViewPort(visibleViewPort);
+      invalidateLayerCache();
       invalidate();
     }
   }
@@ -9,6 +9,7 @@ import androidx.annotation.Nullable;
 import org.thoughtcrime.securesms.imageeditor.Renderer;
 import org.thoughtcrime.securesms.imageeditor.RendererContext;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -189,6 +190,10 @@ public final class EditorElement implements Parcelable {
     return children.get(i);
   }
 
+  @NonNull List<EditorElement> getChildren() {
+    return Collections.unmodifiableList(children);
+  }
+
   void forAllInTree(@NonNull PerElementFunction function) {
     function.apply(this);
     for (EditorElement child : children) {
@@ -324,10 +329,18 @@ public final class EditorElement implements Parcelable {
 
   @Override
   public void writeToParcel(Parcel dest, int flags) {
+    writeFieldsToParcel(dest, flags);
+    dest.writeTypedList(children);
+  }
+
+  /**
+   * Writes everything {@link #writeToParcel} does except the children, so that {@link ElementStack}
+   * can store each subtree once and share it between undo states.
+   */
+  void writeFieldsToParcel(@NonNull Parcel dest, int flags) {
     ParcelUtils.writeUUID(dest, id);
     dest.writeInt(this.flags.asInt());
     ParcelUtils.writeMatrix(dest, localMatrix);
     dest.writeParcelable(renderer, flags);
-    dest.writeTypedList(children);
   }
 }
@@ -43,6 +43,8 @@ public final class EditorModel implements Parcelable, RendererContext.Ready {
   private static final int   MINIMUM_CROP_PIXEL_COUNT = 100;
   private static final Point MINIMIM_RATIO            = new Point(15, 1);
 
+  private static final int UNDO_BYTE_BUDGET = 2 * 1024 * 1024;
+
   @NonNull
   private Runnable invalidate = NULL_RUNNABLE;
 
@@ -60,8 +62,8 @@ public final class EditorModel implements Parcelable, RendererContext.Ready {
   public EditorModel() {
     this.size                   = new Point(1024, 1024);
     this.editorElementHierarchy = EditorElementHierarchy.create();
-    this.undoRedoStacks         = new UndoRedoStacks(50);
-    this.cropUndoRedoStacks     = new UndoRedoStacks(50);
+    this.undoRedoStacks         = new UndoRedoStacks(UNDO_BYTE_BUDGET);
+    this.cropUndoRedoStacks     = new UndoRedoStacks(UNDO_BYTE_BUDGET);
   }
 
   private EditorModel(Parcel in) {
@@ -116,6 +118,38 @@ public final class EditorModel implements Parcelable, RendererContext.Ready {
     }
   }
 
+  /**
+   * Renders the tree with {@code exclude} hidden, so the result can be cached while only that
+   * element is changing.
+   */
+  public void drawExcept(@NonNull RendererContext rendererContext, @NonNull EditorElement exclude) {
+    EditorElement root = editorElementHierarchy.getRoot();
+
+    root.forAllInTree(element -> element.getFlags().mark());
+    try {
+      exclude.getFlags().setVisible(false);
+      root.draw(rendererContext);
+    } finally {
+      root.forAllInTree(element -> element.getFlags().restore());
+    }
+  }
+
+  /**
+   * Renders just {@code element}, with the matrices of its place in the tree, to draw over the
+   * result of {@link #drawExcept}.
+   */
+  public void drawOnly(@NonNull RendererContext rendererContext, @NonNull EditorElement element) {
+    EditorElement root = editorElementHierarchy.getRoot();
+
+    root.forAllInTree(e -> e.getFlags().mark());
+    try {
+      root.forAllInTree(e -> e.getFlags().setVisible(e == element));
+      root.draw(rendererContext);
+    } finally {
+      root.forAllInTree(e -> e.getFlags().restore());
+    }
+  }
+
   public @Nullable Matrix findElementInverseMatrix(@NonNull EditorElement element, @NonNull Matrix viewMatrix) {
     Matrix inverse = new Matrix();
     if (findElement(element, viewMatrix, inverse)) {
@@ -5,32 +5,44 @@ import android.os.Parcelable;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 /**
  * Contains a stack of elements for undo and redo stacks.
  * <p>
- * Elements are mutable, so this stack serializes the element and keeps a stack of serialized data.
+ * Elements are mutable, so this stack serializes the element. Each element in the tree is
+ * serialized separately into an immutable {@link Node}, and identical subtrees are shared between
+ * states. An edit such as a new drawing stroke only adds the stroke and the path from it up to the
+ * root, rather than another copy of every earlier stroke. Because nodes are shared, comparing two
+ * states is a reference comparison of their roots.
  * <p>
- * The stack has a {@link #limit} and if it exceeds that limit during a push the second to earliest item
- * is removed so that it can always go back to the first state. Effectively collapsing the history for
- * the start of the stack.
+ * The stack has a {@link #byteBudget} for the distinct serialized data it holds, and if it exceeds
+ * that during a push the second to earliest item is removed so that it can always go back to the
+ * first state. Effectively collapsing the history for the start of the stack.
  */
 final class ElementStack implements Parcelable {
 
-  private final int           limit;
-  private final Stack<byte[]> stack = new Stack<>();
+  private final int             byteBudget;
+  private final Stack<Node>     stack = new Stack<>();
+  private final Map<Node, Node> nodes = new HashMap<>();
 
-  ElementStack(int limit) {
-    this.limit = limit;
+  private long totalBytes;
+
+  ElementStack(int byteBudget) {
+    this.byteBudget = byteBudget;
   }
 
   private ElementStack(@NonNull Parcel in) {
     this(in.readInt());
     final int count = in.readInt();
     for (int i = 0; i < count; i++) {
-      stack.add(i, in.createByteArray());
+      push(intern(readElement(in.createByteArray())));
     }
   }
 
@@ -38,24 +50,31 @@ final class ElementStack implements Parcelable {
    * Pushes an element to the stack iff the element's serialized value is different to any found at
    * the top of the stack.
    * <p>
-   * Removes the second to earliest item if it is overflowing.
+   * Removes the second to earliest item while it is over budget.
    *
    * @param element new editor element state.
    * @return true iff the pushed item was different to the top item.
    */
   boolean tryPush(@NonNull EditorElement element) {
-    byte[]  bytes = getBytes(element);
-    boolean push  = stack.isEmpty() || !Arrays.equals(bytes, stack.peek());
+    Node    node = intern(element);
+    boolean push = stack.isEmpty() || node != stack.peek();
 
     if (push) {
-      stack.push(bytes);
-      if (stack.size() > limit) {
-        stack.remove(1);
-      }
+      push(node);
     }
+
     return push;
   }
 
+  private void push(@NonNull Node node) {
+    node.references++;
+    stack.push(node);
+
+    while (totalBytes > byteBudget && stack.size() > 2) {
+      release(stack.remove(1));
+    }
+  }
+
   static byte[] getBytes(@NonNull Parcelable parcelable) {
     Parcel parcel = Parcel.obtain();
     byte[] bytes;
@@ -74,31 +93,30 @@ final class ElementStack implements Parcelable {
   @Nullable EditorElement pop(@NonNull EditorElement element) {
     if (stack.empty()) return null;
 
-    byte[] elementBytes = getBytes(element);
-    byte[] stackData    = null;
+    Node current = find(element);
+    Node popped  = null;
 
-    while (!stack.empty() && stackData == null) {
-      byte[] topData = stack.pop();
+    while (!stack.empty() && popped == null) {
+      Node top = stack.pop();
 
-      if (!Arrays.equals(topData, elementBytes)) {
-        stackData = topData;
+      if (top != current) {
+        popped = top;
+      } else {
+        release(top);
       }
     }
 
-    if (stackData == null) return null;
+    if (popped == null) return null;
 
-    Parcel parcel = Parcel.obtain();
-    try {
-      parcel.unmarshall(stackData, 0, stackData.length);
-      parcel.setDataPosition(0);
-      return parcel.readParcelable(EditorElement.class.getClassLoader());
-    } finally {
-      parcel.recycle();
-    }
+    EditorElement result = readElement(flatten(popped));
+    release(popped);
+    return result;
   }
 
   void clear() {
     stack.clear();
+    nodes.clear();
+    totalBytes = 0;
   }
 
   public static final Creator<ElementStack> CREATOR = new Creator<ElementStack>() {
@@ -120,25 +138,199 @@ final class ElementStack implements Parcelable {
 
   @Override
   public void writeToParcel(Parcel dest, int flags) {
-    dest.writeInt(limit);
+    dest.writeInt(byteBudget);
     final int count = stack.size();
     dest.writeInt(count);
     for (int i = 0; i < count; i++) {
-      dest.writeByteArray(stack.get(i));
+      dest.writeByteArray(flatten(stack.get(i)));
     }
   }
 
   boolean stackContainsStateDifferentFrom(@NonNull EditorElement element) {
     if (stack.isEmpty()) return false;
 
-    byte[] currentStateBytes = getBytes(element);
+    Node current = find(element);
 
-    for (byte[] item : stack) {
-      if (!Arrays.equals(item, currentStateBytes)) {
+    for (Node item : stack) {
+      if (item != current) {
         return true;
       }
     }
 
     return false;
   }
+
+  /**
+   * @return The shared node for this element's current state, adding any parts of it that are not
+   *         yet stored. New nodes are unreferenced until pushed or linked to a parent.
+   */
+  private @NonNull Node intern(@NonNull EditorElement element) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      return intern(element, parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private @NonNull Node intern(@NonNull EditorElement element, @NonNull Parcel parcel) {
+    List<EditorElement> children   = element.getChildren();
+    Node[]              childNodes = new Node[children.size()];
+
+    for (int i = 0; i < childNodes.length; i++) {
+      childNodes[i] = intern(children.get(i), parcel);
+    }
+
+    Node candidate = new Node(getFieldBytes(element, parcel), childNodes);
+    Node existing  = nodes.get(candidate);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    for (Node child : childNodes) {
+      child.references++;
+    }
+
+    nodes.put(candidate, candidate);
+    totalBytes += candidate.size();
+
+    return candidate;
+  }
+
+  /**
+   * @return The stored node matching this element's current state, or null if this state is not
+   *         in the stack. Never adds nodes.
+   */
+  private @Nullable Node find(@NonNull EditorElement element) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      return find(element, parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private @Nullable Node find(@NonNull EditorElement element, @NonNull Parcel parcel) {
+    List<EditorElement> children   = element.getChildren();
+    Node[]              childNodes = new Node[children.size()];
+
+    for (int i = 0; i < childNodes.length; i++) {
+      childNodes[i] = find(children.get(i), parcel);
+      if (childNodes[i] == null) return null;
+    }
+
+    return nodes.get(new Node(getFieldBytes(element, parcel), childNodes));
+  }
+
+  private void release(@NonNull Node node) {
+    if (node.references > 0) {
+      node.references--;
+    }
+
+    if (node.references == 0 && nodes.remove(node) != null) {
+      totalBytes -= node.size();
+
+      for (Node child : node.children) {
+        release(child);
+      }
+    }
+  }
+
+  private static @NonNull byte[] getFieldBytes(@NonNull EditorElement element, @NonNull Parcel parcel) {
+    parcel.setDataSize(0);
+    parcel.setDataPosition(0);
+    element.writeFieldsToParcel(parcel, 0);
+    return parcel.marshall();
+  }
+
+  /**
+   * Reassembles the bytes {@link EditorElement#writeToParcel} would produce for this state.
+   */
+  private static @NonNull byte[] flatten(@NonNull Node node) {
+    ByteBuffer buffer = ByteBuffer.allocate(node.flattenedSize()).order(ByteOrder.nativeOrder());
+    node.writeTo(buffer);
+    return buffer.array();
+  }
+
+  private static @NonNull EditorElement readElement(@NonNull byte[] bytes) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.unmarshall(bytes, 0, bytes.length);
+      parcel.setDataPosition(0);
+      return EditorElement.CREATOR.createFromParcel(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  /**
+   * An element's own serialized fields, plus its children as shared nodes. Equality is by field
+   * content and child identity, so equal nodes describe equal subtrees.
+   */
+  private static final class Node {
+
+    private final byte[] fields;
+    private final Node[] children;
+    private final int    hashCode;
+
+    private int references;
+
+    private Node(@NonNull byte[] fields, @NonNull Node[] children) {
+      this.fields   = fields;
+      this.children = children;
+
+      int hash = Arrays.hashCode(fields);
+      for (Node child : children) {
+        hash = 31 * hash + System.identityHashCode(child);
+      }
+      this.hashCode = hash;
+    }
+
+    int size() {
+      return fields.length + children.length * 4;
+    }
+
+    /**
+     * Matches {@link Parcel#writeTypedList}, which writes a count and then a non-null marker
+     * before each child.
+     */
+    int flattenedSize() {
+      int size = fields.length + 4;
+      for (Node child : children) {
+        size += 4 + child.flattenedSize();
+      }
+      return size;
+    }
+
+    void writeTo(@NonNull ByteBuffer buffer) {
+      buffer.put(fields);
+      buffer.putInt(children.length);
+      for (Node child : children) {
+        buffer.putInt(1);
+        child.writeTo(buffer);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Node)) return false;
+
+      Node other = (Node) o;
+
+      if (hashCode != other.hashCode || children.length != other.children.length) return false;
+
+      for (int i = 0; i < children.length; i++) {
+        if (children[i] != other.children[i]) return false;
+      }
+
+      return Arrays.equals(fields, other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
@@ -15,8 +15,8 @@ final class UndoRedoStacks implements Parcelable {
   @NonNull
   private byte[] unchangedState;
 
-  UndoRedoStacks(int limit) {
-    this(new ElementStack(limit), new ElementStack(limit), null);
+  UndoRedoStacks(int byteBudget) {
+    this(new ElementStack(byteBudget), new ElementStack(byteBudget), null);
   }
 
   private UndoRedoStacks(ElementStack undoStack, ElementStack redoStack, @Nullable byte[] unchangedState) {
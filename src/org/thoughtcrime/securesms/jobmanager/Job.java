@@ -94,6 +94,15 @@ public abstract class Job {
   public void onRetry() {
   }
 
+  /**
+   * Jobs that return the same group share the running limit set for it with
+   * {@link JobManager.Configuration.Builder#setConcurrencyLimits(Map)}, regardless of their queues.
+   * Asked each time the job is considered for running, so the answer may depend on app state.
+   */
+  public @Nullable String getConcurrencyGroup() {
+    return null;
+  }
+
   /**
    * Serialize your job state so that it can be recreated in the future.
    */
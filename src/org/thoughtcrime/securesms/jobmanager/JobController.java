@@ -17,9 +17,11 @@ import org.thoughtcrime.securesms.util.Debouncer;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -41,6 +43,8 @@ class JobController {
   private final Debouncer              debouncer;
   private final Callback               callback;
   private final Set<String>            runningJobs;
+  private final Map<String, Integer>   concurrencyLimits;
+  private final Map<String, String>    runningGroups;
 
   JobController(@NonNull Application application,
                 @NonNull JobStorage jobStorage,
@@ -50,6 +54,7 @@ class JobController {
                 @NonNull JobTracker jobTracker,
                 @NonNull Scheduler scheduler,
                 @NonNull Debouncer debouncer,
+                @NonNull Map<String, Integer> concurrencyLimits,
                 @NonNull Callback callback)
   {
     this.application            = application;
@@ -62,6 +67,8 @@ class JobController {
     this.debouncer              = debouncer;
     this.callback               = callback;
     this.runningJobs            = new HashSet<>();
+    this.concurrencyLimits      = concurrencyLimits;
+    this.runningGroups          = new HashMap<>();
   }
 
   @WorkerThread
@@ -75,7 +82,7 @@ class JobController {
   }
 
   @WorkerThread
-  synchronized void submitNewJobChain(@NonNull List<List<Job>> chain) {
+  synchronized void submitNewJobChain(@NonNull List<List<Job>> chain, @NonNull Map<Job, Job> pairedDependencies) {
     chain = Stream.of(chain).filterNot(List::isEmpty).toList();
 
     if (chain.isEmpty()) {
@@ -90,7 +97,7 @@ class JobController {
       return;
     }
 
-    insertJobChain(chain);
+    insertJobChain(chain, pairedDependencies);
     scheduleJobs(chain.get(0));
     triggerOnSubmit(chain);
     notifyAll();
@@ -120,6 +127,10 @@ class JobController {
 
   synchronized void onJobFinished(@NonNull Job job) {
     runningJobs.remove(job.getId());
+
+    if (runningGroups.remove(job.getId()) != null) {
+      notifyAll();
+    }
   }
 
   @WorkerThread
@@ -154,10 +165,42 @@ class JobController {
     return dependents;
   }
 
+  /**
+   * Removes a job that hasn't started yet, along with everything that depends on it, as if it had
+   * failed. Jobs that are already running are left to finish.
+   *
+   * @return The jobs that were removed, including the job itself.
+   */
+  @WorkerThread
+  synchronized @NonNull List<Job> onCancel(@NonNull String id) {
+    if (runningJobs.contains(id)) {
+      Log.w(TAG, "Job " + id + " is already running. Letting it finish.");
+      return Collections.emptyList();
+    }
+
+    JobSpec jobSpec = jobStorage.getJobSpec(id);
+
+    if (jobSpec == null) {
+      return Collections.emptyList();
+    }
+
+    Job       job        = createJob(jobSpec, jobStorage.getConstraintSpecs(id));
+    List<Job> dependents = onFailure(job);
+    List<Job> all        = new ArrayList<>(dependents.size() + 1);
+
+    all.add(job);
+    all.addAll(dependents);
+
+    notifyAll();
+
+    return all;
+  }
+
   /**
    * Retrieves the next job that is eligible for execution. To be 'eligible' means that the job:
    *  - Has no dependencies
    *  - Has no unmet constraints
+   *  - Is not in a concurrency group that is already at its limit
    *
    * This method will block until a job is available.
    * When the job returned from this method has been run, you must call {@link #onJobFinished(Job)}.
@@ -245,13 +288,14 @@ class JobController {
   }
 
   @WorkerThread
-  private void insertJobChain(@NonNull List<List<Job>> chain) {
+  private void insertJobChain(@NonNull List<List<Job>> chain, @NonNull Map<Job, Job> pairedDependencies) {
     List<FullSpec> fullSpecs = new LinkedList<>();
     List<Job>      dependsOn = Collections.emptyList();
 
     for (List<Job> jobList : chain) {
       for (Job job : jobList) {
-        fullSpecs.add(buildFullSpec(job, dependsOn));
+        Job paired = pairedDependencies.get(job);
+        fullSpecs.add(buildFullSpec(job, paired != null ? Collections.singletonList(paired) : dependsOn));
       }
       dependsOn = jobList;
     }
@@ -312,13 +356,36 @@ class JobController {
                                                    .toList();
 
       if (Stream.of(constraints).allMatch(Constraint::isMet)) {
-        return createJob(jobSpec, constraintSpecs);
+        Job    job   = createJob(jobSpec, constraintSpecs);
+        String group = job.getConcurrencyGroup();
+
+        if (group == null) {
+          return job;
+        } else if (getRunningCount(group) < getConcurrencyLimit(group)) {
+          runningGroups.put(job.getId(), group);
+          return job;
+        }
       }
     }
 
     return null;
   }
 
+  private int getRunningCount(@NonNull String group) {
+    int count = 0;
+
+    for (String runningGroup : runningGroups.values()) {
+      if (group.equals(runningGroup)) count++;
+    }
+
+    return count;
+  }
+
+  private int getConcurrencyLimit(@NonNull String group) {
+    Integer limit = concurrencyLimits.get(group);
+    return limit != null ? limit : Integer.MAX_VALUE;
+  }
+
   private @NonNull Job createJob(@NonNull JobSpec jobSpec, @NonNull List<ConstraintSpec> constraintSpecs) {
     Job.Parameters parameters = buildJobParameters(jobSpec, constraintSpecs);
     Data           data       = dataSerializer.deserialize(jobSpec.getSerializedData());
@@ -7,6 +7,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 
+import com.annimon.stream.Stream;
+
 import org.thoughtcrime.securesms.jobmanager.impl.DefaultExecutorFactory;
 import org.thoughtcrime.securesms.jobmanager.impl.JsonDataSerializer;
 import org.thoughtcrime.securesms.jobmanager.workmanager.WorkManagerMigrator;
@@ -58,6 +60,7 @@ public class JobManager implements ConstraintObserver.Notifier {
                                            Build.VERSION.SDK_INT < 26 ? new AlarmManagerScheduler(application)
                                                                       : new CompositeScheduler(new InAppScheduler(this), new JobSchedulerScheduler(application)),
                                            new Debouncer(500),
+                                           configuration.getConcurrencyLimits(),
                                            this::onEmptyQueue);
 
     executor.execute(() -> {
@@ -136,6 +139,14 @@ public class JobManager implements ConstraintObserver.Notifier {
     return new Chain(this, jobs);
   }
 
+  /**
+   * Cancels the job with the specified ID, along with any jobs that depend on it. A job that is
+   * already running can't be stopped and will be allowed to finish.
+   */
+  public void cancel(@NonNull String id) {
+    executor.execute(() -> Stream.of(jobController.onCancel(id)).forEach(Job::onCanceled));
+  }
+
   /**
    * Retrieves a string representing the state of the job queue. Intended for debugging.
    */
@@ -174,9 +185,10 @@ public class JobManager implements ConstraintObserver.Notifier {
   }
 
   /**
-   * Pokes the system to take another pass at the job queue.
+   * Pokes the system to take another pass at the job queue. Useful when state that a job consults
+   * outside of its constraints, like {@link Job#getConcurrencyGroup()}, has changed.
    */
-  void wakeUp() {
+  public void wakeUp() {
     executor.execute(jobController::wakeUp);
   }
 
@@ -188,7 +200,7 @@ public class JobManager implements ConstraintObserver.Notifier {
     }
 
     executor.execute(() -> {
-      jobController.submitNewJobChain(chain.getJobListChain());
+      jobController.submitNewJobChain(chain.getJobListChain(), chain.getPairedDependencies());
       wakeUp();
     });
   }
@@ -212,12 +224,14 @@ public class JobManager implements ConstraintObserver.Notifier {
    */
   public static class Chain {
 
-    private final JobManager jobManager;
+    private final JobManager      jobManager;
     private final List<List<Job>> jobs;
+    private final Map<Job, Job>   pairedDependencies;
 
     private Chain(@NonNull JobManager jobManager, @NonNull List<? extends Job> jobs) {
-      this.jobManager = jobManager;
-      this.jobs       = new LinkedList<>();
+      this.jobManager         = jobManager;
+      this.jobs               = new LinkedList<>();
+      this.pairedDependencies = new HashMap<>();
 
       this.jobs.add(new ArrayList<>(jobs));
     }
@@ -233,6 +247,26 @@ public class JobManager implements ConstraintObserver.Notifier {
       return this;
     }
 
+    /**
+     * Like {@link #then(List)}, except that each job only waits on the job at the same position in
+     * the previous step, rather than on the entire step. Useful for independent pipelines, like
+     * compressing and then uploading each attachment, where one slow item shouldn't hold back the
+     * rest. Later steps added with {@link #then(List)} still wait on all of these jobs.
+     */
+    public Chain thenEach(@NonNull List<? extends Job> jobs) {
+      List<Job> previous = this.jobs.get(this.jobs.size() - 1);
+
+      if (jobs.size() != previous.size()) {
+        throw new IllegalArgumentException("Expected " + previous.size() + " jobs, but got " + jobs.size());
+      }
+
+      for (int i = 0; i < jobs.size(); i++) {
+        pairedDependencies.put(jobs.get(i), previous.get(i));
+      }
+
+      return then(jobs);
+    }
+
     public void enqueue() {
       jobManager.enqueueChain(this);
     }
@@ -240,6 +274,10 @@ public class JobManager implements ConstraintObserver.Notifier {
     private List<List<Job>> getJobListChain() {
       return jobs;
     }
+
+    private Map<Job, Job> getPairedDependencies() {
+      return pairedDependencies;
+    }
   }
 
   public static class Configuration {
@@ -253,6 +291,7 @@ public class JobManager implements ConstraintObserver.Notifier {
     private final JobStorage               jobStorage;
     private final JobMigrator              jobMigrator;
     private final JobTracker               jobTracker;
+    private final Map<String, Integer>     concurrencyLimits;
 
     private Configuration(int jobThreadCount,
                           @NonNull ExecutorFactory executorFactory,
@@ -262,7 +301,8 @@ public class JobManager implements ConstraintObserver.Notifier {
                           @NonNull Data.Serializer dataSerializer,
                           @NonNull JobStorage jobStorage,
                           @NonNull JobMigrator jobMigrator,
-                          @NonNull JobTracker jobTracker)
+                          @NonNull JobTracker jobTracker,
+                          @NonNull Map<String, Integer> concurrencyLimits)
     {
       this.executorFactory        = executorFactory;
       this.jobThreadCount         = jobThreadCount;
@@ -273,6 +313,7 @@ public class JobManager implements ConstraintObserver.Notifier {
       this.jobStorage             = jobStorage;
       this.jobMigrator            = jobMigrator;
       this.jobTracker             = jobTracker;
+      this.concurrencyLimits      = concurrencyLimits;
     }
 
     int getJobThreadCount() {
@@ -312,6 +353,10 @@ public class JobManager implements ConstraintObserver.Notifier {
       return jobTracker;
     }
 
+    @NonNull Map<String, Integer> getConcurrencyLimits() {
+      return concurrencyLimits;
+    }
+
     public static class Builder {
 
       private ExecutorFactory                 executorFactory     = new DefaultExecutorFactory();
@@ -323,6 +368,7 @@ public class JobManager implements ConstraintObserver.Notifier {
       private JobStorage                      jobStorage          = null;
       private JobMigrator                     jobMigrator         = null;
       private JobTracker                      jobTracker          = new JobTracker();
+      private Map<String, Integer>            concurrencyLimits   = new HashMap<>();
 
       public @NonNull Builder setJobThreadCount(int jobThreadCount) {
         this.jobThreadCount = jobThreadCount;
@@ -364,6 +410,15 @@ public class JobManager implements ConstraintObserver.Notifier {
         return this;
       }
 
+      /**
+       * @param concurrencyLimits The most jobs of each {@link Job#getConcurrencyGroup()} that may run
+       *                          at once. Groups without a limit are unbounded.
+       */
+      public @NonNull Builder setConcurrencyLimits(@NonNull Map<String, Integer> concurrencyLimits) {
+        this.concurrencyLimits = concurrencyLimits;
+        return this;
+      }
+
       public @NonNull Configuration build() {
         return new Configuration(jobThreadCount,
                                  executorFactory,
@@ -373,7 +428,8 @@ public class JobManager implements ConstraintObserver.Notifier {
                                  dataSerializer,
                                  jobStorage,
                                  jobMigrator,
-                                 jobTracker);
+                                 jobTracker,
+                                 new HashMap<>(concurrencyLimits));
       }
     }
   }
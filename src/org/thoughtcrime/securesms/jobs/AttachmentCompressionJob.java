@@ -4,6 +4,7 @@ import android.content.Context;
 import android.media.MediaDataSource;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 
 import org.greenrobot.eventbus.EventBus;
@@ -50,10 +51,20 @@ public final class AttachmentCompressionJob extends BaseJob {
   private static final String KEY_UNIQUE_ID           = "unique_id";
   private static final String KEY_MMS                 = "mms";
   private static final String KEY_MMS_SUBSCRIPTION_ID = "mms_subscription_id";
+  private static final String KEY_VIDEO_TRANSCODE     = "video_transcode";
+
+  static final String IMAGE_COMPRESSION_GROUP = "GENERIC_TRANSCODE";
+
+  /**
+   * Image compression is CPU bound and holds a decoded bitmap while it runs, so only a couple of
+   * album items are compressed at once rather than all of them or one at a time.
+   */
+  static final int MAX_CONCURRENT_IMAGE_COMPRESSIONS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 2));
 
   private final AttachmentId attachmentId;
   private final boolean      mms;
   private final int          mmsSubscriptionId;
+  private final boolean      isVideoTranscode;
 
   public static AttachmentCompressionJob fromAttachment(@NonNull DatabaseAttachment databaseAttachment,
                                                         boolean mms,
@@ -74,22 +85,33 @@ public final class AttachmentCompressionJob extends BaseJob {
                        .addConstraint(NetworkConstraint.KEY)
                        .setLifespan(TimeUnit.DAYS.toMillis(1))
                        .setMaxAttempts(Parameters.UNLIMITED)
-                       .setQueue(isVideoTranscode ? "VIDEO_TRANSCODE" : "GENERIC_TRANSCODE")
+                       .setQueue(getQueue(attachmentId, isVideoTranscode))
                        .build(),
          attachmentId,
          mms,
-         mmsSubscriptionId);
+         mmsSubscriptionId,
+         isVideoTranscode);
   }
 
   private AttachmentCompressionJob(@NonNull Parameters parameters,
                                    @NonNull AttachmentId attachmentId,
                                    boolean mms,
-                                   int mmsSubscriptionId)
+                                   int mmsSubscriptionId,
+                                   boolean isVideoTranscode)
   {
     super(parameters);
     this.attachmentId      = attachmentId;
     this.mms               = mms;
     this.mmsSubscriptionId = mmsSubscriptionId;
+    this.isVideoTranscode  = isVideoTranscode;
+  }
+
+  private static @NonNull String getQueue(@NonNull AttachmentId attachmentId, boolean isVideoTranscode) {
+    if (isVideoTranscode) {
+      return "VIDEO_TRANSCODE";
+    } else {
+      return "GENERIC_TRANSCODE-" + attachmentId.getRowId() + "-" + attachmentId.getUniqueId();
+    }
   }
 
   @Override
@@ -98,9 +120,15 @@ public final class AttachmentCompressionJob extends BaseJob {
                              .putLong(KEY_UNIQUE_ID, attachmentId.getUniqueId())
                              .putBoolean(KEY_MMS, mms)
                              .putInt(KEY_MMS_SUBSCRIPTION_ID, mmsSubscriptionId)
+                             .putBoolean(KEY_VIDEO_TRANSCODE, isVideoTranscode)
                              .build();
   }
 
+  @Override
+  public @Nullable String getConcurrencyGroup() {
+    return isVideoTranscode ? null : IMAGE_COMPRESSION_GROUP;
+  }
+
   @Override
   public @NonNull String getFactoryKey() {
     return KEY;
@@ -237,7 +265,8 @@ public final class AttachmentCompressionJob extends BaseJob {
       return new AttachmentCompressionJob(parameters,
                                           new AttachmentId(data.getLong(KEY_ROW_ID), data.getLong(KEY_UNIQUE_ID)),
                                           data.getBoolean(KEY_MMS),
-                                          data.getInt(KEY_MMS_SUBSCRIPTION_ID));
+                                          data.getInt(KEY_MMS_SUBSCRIPTION_ID),
+                                          data.getBooleanOrDefault(KEY_VIDEO_TRANSCODE, false));
     }
   }
 }
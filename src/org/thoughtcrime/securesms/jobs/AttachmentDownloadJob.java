@@ -1,6 +1,7 @@
 package org.thoughtcrime.securesms.jobs;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import android.text.TextUtils;
 
@@ -45,39 +46,69 @@ public class AttachmentDownloadJob extends BaseJob {
   private static final String KEY_PART_ROW_ID   = "part_row_id";
   private static final String KEY_PAR_UNIQUE_ID = "part_unique_id";
   private static final String KEY_MANUAL        = "part_manual";
+  private static final String KEY_THREAD_ID     = "thread_id";
+
+  /**
+   * Automatic downloads share this concurrency group, so a busy group flooding media can only
+   * occupy a few job runners at a time. Manual downloads, and those for the conversation on screen,
+   * are left out of it so they start as soon as a runner is free.
+   */
+  static final String AUTOMATIC_DOWNLOAD_GROUP          = "AttachmentDownloadJob-automatic";
+  static final int    MAX_CONCURRENT_AUTOMATIC_DOWNLOADS = 2;
 
   private long    messageId;
+  private long    threadId;
   private long    partRowId;
   private long    partUniqueId;
   private boolean manual;
 
   public AttachmentDownloadJob(long messageId, AttachmentId attachmentId, boolean manual) {
+    this(messageId, -1, attachmentId, manual);
+  }
+
+  /**
+   * @param threadId The thread the message is in, or -1 if unknown, used to prioritize downloads
+   *                 for the conversation on screen.
+   */
+  public AttachmentDownloadJob(long messageId, long threadId, AttachmentId attachmentId, boolean manual) {
     this(new Job.Parameters.Builder()
                            .setQueue("AttachmentDownloadJob" + attachmentId.getRowId() + "-" + attachmentId.getUniqueId())
                            .addConstraint(NetworkConstraint.KEY)
                            .setMaxAttempts(25)
                            .build(),
          messageId,
+         threadId,
          attachmentId,
          manual);
 
   }
 
-  private AttachmentDownloadJob(@NonNull Job.Parameters parameters, long messageId, AttachmentId attachmentId, boolean manual) {
+  private AttachmentDownloadJob(@NonNull Job.Parameters parameters, long messageId, long threadId, AttachmentId attachmentId, boolean manual) {
     super(parameters);
 
     this.messageId    = messageId;
+    this.threadId     = threadId;
     this.partRowId    = attachmentId.getRowId();
     this.partUniqueId = attachmentId.getUniqueId();
     this.manual       = manual;
   }
 
+  @Override
+  public @Nullable String getConcurrencyGroup() {
+    if (manual || (threadId != -1 && MessageNotifier.getVisibleThread() == threadId)) {
+      return null;
+    } else {
+      return AUTOMATIC_DOWNLOAD_GROUP;
+    }
+  }
+
   @Override
   public @NonNull Data serialize() {
     return new Data.Builder().putLong(KEY_MESSAGE_ID, messageId)
                              .putLong(KEY_PART_ROW_ID, partRowId)
                              .putLong(KEY_PAR_UNIQUE_ID, partUniqueId)
                              .putBoolean(KEY_MANUAL, manual)
+                             .putLong(KEY_THREAD_ID, threadId)
                              .build();
   }
 
@@ -249,6 +280,7 @@ public class AttachmentDownloadJob extends BaseJob {
     public @NonNull AttachmentDownloadJob create(@NonNull Parameters parameters, @NonNull Data data) {
       return new AttachmentDownloadJob(parameters,
                                        data.getLong(KEY_MESSAGE_ID),
+                                       data.getLongOrDefault(KEY_THREAD_ID, -1),
                                        new AttachmentId(data.getLong(KEY_PART_ROW_ID), data.getLong(KEY_PAR_UNIQUE_ID)),
                                        data.getBoolean(KEY_MANUAL));
     }
@@ -4,6 +4,7 @@ import android.graphics.Bitmap;
 import android.media.MediaDataSource;
 import android.media.MediaMetadataRetriever;
 import android.os.Build;
+import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -49,8 +50,9 @@ public final class AttachmentUploadJob extends BaseJob {
   @SuppressWarnings("unused")
   private static final String TAG = Log.tag(AttachmentUploadJob.class);
 
-  private static final String KEY_ROW_ID    = "row_id";
-  private static final String KEY_UNIQUE_ID = "unique_id";
+  private static final String KEY_ROW_ID           = "row_id";
+  private static final String KEY_UNIQUE_ID        = "unique_id";
+  private static final String KEY_SKIP_IF_UPLOADED = "skip_if_uploaded";
 
   /**
    * Foreground notification shows while uploading attachments above this.
@@ -58,25 +60,38 @@ public final class AttachmentUploadJob extends BaseJob {
   private static final int FOREGROUND_LIMIT = 10 * 1024 * 1024;
 
   private final AttachmentId attachmentId;
+  private final boolean      skipIfUploaded;
 
   public AttachmentUploadJob(AttachmentId attachmentId) {
+    this(attachmentId, false);
+  }
+
+  /**
+   * @param skipIfUploaded Whether to reuse an upload that has already finished, like a pre-upload
+   *                       of the same attachment that ran ahead of this job in its queue.
+   */
+  public AttachmentUploadJob(@NonNull AttachmentId attachmentId, boolean skipIfUploaded) {
     this(new Job.Parameters.Builder()
                            .addConstraint(NetworkConstraint.KEY)
                            .setLifespan(TimeUnit.DAYS.toMillis(1))
                            .setMaxAttempts(Parameters.UNLIMITED)
+                           .setQueue("AttachmentUploadJob" + attachmentId.getRowId() + "-" + attachmentId.getUniqueId())
                            .build(),
-         attachmentId);
+         attachmentId,
+         skipIfUploaded);
   }
 
-  private AttachmentUploadJob(@NonNull Job.Parameters parameters, @NonNull AttachmentId attachmentId) {
+  private AttachmentUploadJob(@NonNull Job.Parameters parameters, @NonNull AttachmentId attachmentId, boolean skipIfUploaded) {
     super(parameters);
-    this.attachmentId = attachmentId;
+    this.attachmentId   = attachmentId;
+    this.skipIfUploaded = skipIfUploaded;
   }
 
   @Override
   public @NonNull Data serialize() {
     return new Data.Builder().putLong(KEY_ROW_ID, attachmentId.getRowId())
                              .putLong(KEY_UNIQUE_ID, attachmentId.getUniqueId())
+                             .putBoolean(KEY_SKIP_IF_UPLOADED, skipIfUploaded)
                              .build();
   }
 
@@ -95,6 +110,11 @@ public final class AttachmentUploadJob extends BaseJob {
       throw new InvalidAttachmentException("Cannot find the specified attachment.");
     }
 
+    if (skipIfUploaded && isUploaded(databaseAttachment)) {
+      Log.i(TAG, "Attachment " + databaseAttachment.getAttachmentId() + " was already uploaded. Skipping.");
+      return;
+    }
+
     Log.i(TAG, "Uploading attachment for message " + databaseAttachment.getMmsId() + " with ID " + databaseAttachment.getAttachmentId());
 
     try (NotificationController notification = getNotificationForAttachment(databaseAttachment)) {
@@ -106,6 +126,12 @@ public final class AttachmentUploadJob extends BaseJob {
     }
   }
 
+  private static boolean isUploaded(@NonNull Attachment attachment) {
+    return attachment.getTransferState() == AttachmentDatabase.TRANSFER_PROGRESS_DONE &&
+           !TextUtils.isEmpty(attachment.getLocation())                              &&
+           !TextUtils.isEmpty(attachment.getKey());
+  }
+
   private @Nullable NotificationController getNotificationForAttachment(@NonNull Attachment attachment) {
     if (attachment.getSize() >= FOREGROUND_LIMIT) {
       return GenericForegroundService.startForegroundTask(context, context.getString(R.string.AttachmentUploadJob_uploading_media));
@@ -209,7 +235,9 @@ public final class AttachmentUploadJob extends BaseJob {
   public static final class Factory implements Job.Factory<AttachmentUploadJob> {
     @Override
     public @NonNull AttachmentUploadJob create(@NonNull Parameters parameters, @NonNull org.thoughtcrime.securesms.jobmanager.Data data) {
-      return new AttachmentUploadJob(parameters, new AttachmentId(data.getLong(KEY_ROW_ID), data.getLong(KEY_UNIQUE_ID)));
+      return new AttachmentUploadJob(parameters,
+                                     new AttachmentId(data.getLong(KEY_ROW_ID), data.getLong(KEY_UNIQUE_ID)),
+                                     data.getBooleanOrDefault(KEY_SKIP_IF_UPLOADED, false));
     }
   }
 }
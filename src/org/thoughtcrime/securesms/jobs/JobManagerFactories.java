@@ -111,6 +111,13 @@ public final class JobManagerFactories {
     }};
   }
 
+  public static Map<String, Integer> getConcurrencyLimits() {
+    return new HashMap<String, Integer>() {{
+      put(AttachmentDownloadJob.AUTOMATIC_DOWNLOAD_GROUP,   AttachmentDownloadJob.MAX_CONCURRENT_AUTOMATIC_DOWNLOADS);
+      put(AttachmentCompressionJob.IMAGE_COMPRESSION_GROUP, AttachmentCompressionJob.MAX_CONCURRENT_IMAGE_COMPRESSIONS);
+    }};
+  }
+
   public static List<ConstraintObserver> getConstraintObservers(@NonNull Application application) {
     return Arrays.asList(CellServiceConstraintObserver.getInstance(application),
                          new NetworkConstraintObserver(application),
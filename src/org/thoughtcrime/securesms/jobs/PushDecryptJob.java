@@ -730,7 +730,7 @@ public class PushDecryptJob extends BaseJob {
         forceStickerDownloadIfNecessary(stickerAttachments);
 
         for (DatabaseAttachment attachment : attachments) {
-          ApplicationDependencies.getJobManager().add(new AttachmentDownloadJob(insertResult.get().getMessageId(), attachment.getAttachmentId(), false));
+          ApplicationDependencies.getJobManager().add(new AttachmentDownloadJob(insertResult.get().getMessageId(), insertResult.get().getThreadId(), attachment.getAttachmentId(), false));
         }
 
         if (smsMessageId.isPresent()) {
@@ -826,7 +826,7 @@ public class PushDecryptJob extends BaseJob {
       forceStickerDownloadIfNecessary(stickerAttachments);
 
       for (DatabaseAttachment attachment : attachments) {
-        ApplicationDependencies.getJobManager().add(new AttachmentDownloadJob(messageId, attachment.getAttachmentId(), false));
+        ApplicationDependencies.getJobManager().add(new AttachmentDownloadJob(messageId, threadId, attachment.getAttachmentId(), false));
       }
 
       if (message.getMessage().getExpiresInSeconds() > 0) {
@@ -10,6 +10,7 @@ import com.annimon.stream.Stream;
 
 import org.thoughtcrime.securesms.ApplicationContext;
 import org.thoughtcrime.securesms.attachments.Attachment;
+import org.thoughtcrime.securesms.attachments.AttachmentId;
 import org.thoughtcrime.securesms.crypto.UnidentifiedAccessUtil;
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.database.GroupDatabase;
@@ -89,6 +90,19 @@ public class PushGroupSendJob extends PushSendJob {
                              long messageId,
                              @NonNull RecipientId destination,
                              @Nullable RecipientId filterAddress)
+  {
+    enqueue(context, jobManager, messageId, destination, filterAddress, Collections.emptySet());
+  }
+
+  /**
+   * @param preUploaded Attachments of the message that were pre-uploaded while it was composed.
+   */
+  public static void enqueue(@NonNull Context context,
+                             @NonNull JobManager jobManager,
+                             long messageId,
+                             @NonNull RecipientId destination,
+                             @Nullable RecipientId filterAddress,
+                             @NonNull Set<AttachmentId> preUploaded)
   {
     try {
       Recipient group = Recipient.resolved(destination);
@@ -102,7 +116,7 @@ public class PushGroupSendJob extends PushSendJob {
 
       MmsDatabase          database                    = DatabaseFactory.getMmsDatabase(context);
       OutgoingMediaMessage message                     = database.getOutgoingMessage(messageId);
-      JobManager.Chain     compressAndUploadAttachment = createCompressingAndUploadAttachmentsChain(jobManager, message);
+      JobManager.Chain     compressAndUploadAttachment = createCompressingAndUploadAttachmentsChain(jobManager, message, preUploaded);
 
       compressAndUploadAttachment.then(new PushGroupSendJob(messageId, destination, filterAddress))
                                  .enqueue();
@@ -188,6 +202,7 @@ public class PushGroupSendJob extends PushSendJob {
 
       if (existingNetworkFailures.isEmpty() && networkFailures.isEmpty() && identityMismatches.isEmpty() && existingIdentityMismatches.isEmpty()) {
         database.markAsSent(messageId, true);
+        log(TAG, "Sent message: " + messageId + ", " + (System.currentTimeMillis() - message.getSentTimeMillis()) + " ms after send was tapped.");
 
         markAttachmentsUploaded(messageId, message.getAttachments());
 
@@ -9,6 +9,7 @@ import com.annimon.stream.Stream;
 
 import org.thoughtcrime.securesms.ApplicationContext;
 import org.thoughtcrime.securesms.attachments.Attachment;
+import org.thoughtcrime.securesms.attachments.AttachmentId;
 import org.thoughtcrime.securesms.crypto.UnidentifiedAccessUtil;
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.database.MessagingDatabase.SyncMessageId;
@@ -43,7 +44,9 @@ import org.whispersystems.signalservice.api.push.exceptions.UnregisteredUserExce
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class PushMediaSendJob extends PushSendJob {
 
@@ -66,6 +69,18 @@ public class PushMediaSendJob extends PushSendJob {
 
   @WorkerThread
   public static void enqueue(@NonNull Context context, @NonNull JobManager jobManager, long messageId, @NonNull Recipient recipient) {
+    enqueue(context, jobManager, messageId, recipient, Collections.emptySet());
+  }
+
+  /**
+   * @param preUploaded Attachments of the message that were pre-uploaded while it was composed.
+   */
+  public static void enqueue(@NonNull Context context,
+                             @NonNull JobManager jobManager,
+                             long messageId,
+                             @NonNull Recipient recipient,
+                             @NonNull Set<AttachmentId> preUploaded)
+  {
     try {
       if (!recipient.hasServiceIdentifier()) {
         throw new AssertionError();
@@ -73,7 +88,7 @@ public class PushMediaSendJob extends PushSendJob {
 
       MmsDatabase          database                    = DatabaseFactory.getMmsDatabase(context);
       OutgoingMediaMessage message                     = database.getOutgoingMessage(messageId);
-      JobManager.Chain     compressAndUploadAttachment = createCompressingAndUploadAttachmentsChain(jobManager, message);
+      JobManager.Chain     compressAndUploadAttachment = createCompressingAndUploadAttachmentsChain(jobManager, message, preUploaded);
 
       compressAndUploadAttachment.then(new PushMediaSendJob(messageId, recipient))
                                  .enqueue();
@@ -155,7 +170,7 @@ public class PushMediaSendJob extends PushSendJob {
         DatabaseFactory.getAttachmentDatabase(context).deleteAttachmentFilesForMessage(messageId);
       }
 
-      log(TAG, "Sent message: " + messageId);
+      log(TAG, "Sent message: " + messageId + ", " + (System.currentTimeMillis() - message.getSentTimeMillis()) + " ms after send was tapped.");
 
     } catch (InsecureFallbackApprovalException ifae) {
       warn(TAG, "Failure", ifae);
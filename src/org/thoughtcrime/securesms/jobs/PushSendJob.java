@@ -13,6 +13,7 @@ import org.signal.libsignal.metadata.certificate.InvalidCertificateException;
 import org.signal.libsignal.metadata.certificate.SenderCertificate;
 import org.thoughtcrime.securesms.TextSecureExpiredException;
 import org.thoughtcrime.securesms.attachments.Attachment;
+import org.thoughtcrime.securesms.attachments.AttachmentId;
 import org.thoughtcrime.securesms.attachments.DatabaseAttachment;
 import org.thoughtcrime.securesms.blurhash.BlurHash;
 import org.thoughtcrime.securesms.contactshare.Contact;
@@ -57,6 +58,7 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public abstract class PushSendJob extends SendJob {
@@ -145,6 +147,18 @@ public abstract class PushSendJob extends SendJob {
   }
 
   protected static JobManager.Chain createCompressingAndUploadAttachmentsChain(@NonNull JobManager jobManager, OutgoingMediaMessage message) {
+    return createCompressingAndUploadAttachmentsChain(jobManager, message, Collections.emptySet());
+  }
+
+  /**
+   * @param preUploaded Attachments that already have compression and upload jobs from a pre-upload.
+   *                    Their jobs here share those queues and reuse a finished upload, so they only
+   *                    redo the work if the pre-upload failed.
+   */
+  protected static JobManager.Chain createCompressingAndUploadAttachmentsChain(@NonNull JobManager jobManager,
+                                                                              OutgoingMediaMessage message,
+                                                                              @NonNull Set<AttachmentId> preUploaded)
+  {
     List<Attachment> attachments = new LinkedList<>();
 
     attachments.addAll(message.getAttachments());
@@ -162,10 +176,13 @@ public abstract class PushSendJob extends SendJob {
 
     List<AttachmentCompressionJob> compressionJobs = Stream.of(attachments).map(a -> AttachmentCompressionJob.fromAttachment((DatabaseAttachment) a, false, -1)).toList();
 
-    List<AttachmentUploadJob> attachmentJobs = Stream.of(attachments).map(a -> new AttachmentUploadJob(((DatabaseAttachment) a).getAttachmentId())).toList();
+    List<AttachmentUploadJob> attachmentJobs = Stream.of(attachments)
+                                                      .map(a -> ((DatabaseAttachment) a).getAttachmentId())
+                                                      .map(id -> new AttachmentUploadJob(id, preUploaded.contains(id)))
+                                                      .toList();
 
     return jobManager.startChain(compressionJobs)
-                     .then(attachmentJobs);
+                     .thenEach(attachmentJobs);
   }
 
   protected @NonNull List<SignalServiceAttachment> getAttachmentPointersFor(List<Attachment> attachments) {
@@ -6,6 +6,7 @@ import androidx.core.util.Preconditions;
 import org.thoughtcrime.securesms.ApplicationContext;
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.database.StickerDatabase;
+import org.thoughtcrime.securesms.database.StickerDatabase.SavedSticker;
 import org.thoughtcrime.securesms.database.model.IncomingSticker;
 import org.thoughtcrime.securesms.dependencies.ApplicationDependencies;
 import org.thoughtcrime.securesms.jobmanager.Data;
@@ -14,6 +15,7 @@ import org.thoughtcrime.securesms.jobmanager.JobManager;
 import org.thoughtcrime.securesms.jobmanager.impl.NetworkConstraint;
 import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.util.Hex;
+import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
 import org.whispersystems.libsignal.InvalidMessageException;
 import org.whispersystems.signalservice.api.SignalServiceMessageReceiver;
 import org.whispersystems.signalservice.api.messages.SignalServiceStickerManifest;
@@ -23,6 +25,9 @@ import org.whispersystems.signalservice.api.push.exceptions.PushNetworkException
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 public class StickerPackDownloadJob extends BaseJob {
@@ -35,6 +40,10 @@ public class StickerPackDownloadJob extends BaseJob {
   private static final String KEY_PACK_KEY       = "pack_id";
   private static final String KEY_REFERENCE_PACK = "reference_pack";
 
+  private static final int MAX_PARALLEL_DOWNLOADS = 4;
+
+  private static final ExecutorService DOWNLOAD_EXECUTOR = SignalExecutors.newCachedBoundedExecutor("signal-sticker-download", MAX_PARALLEL_DOWNLOADS);
+
   private final String  packId;
   private final String  packKey;
   private final boolean isReferencePack;
@@ -67,7 +76,7 @@ public class StickerPackDownloadJob extends BaseJob {
   }
 
   @Override
-  protected void onRun() throws IOException, InvalidMessageException {
+  protected void onRun() throws IOException, InvalidMessageException, InterruptedException {
     if (isReferencePack && !DatabaseFactory.getAttachmentDatabase(context).containsStickerPackId(packId)) {
       Log.w(TAG, "There are no attachments with the requested packId present for this reference pack. Skipping.");
       return;
@@ -94,36 +103,101 @@ public class StickerPackDownloadJob extends BaseJob {
       stickerDatabase.markPackAsInstalled(packId);
     }
 
-    StickerInfo      cover = manifest.getCover().or(manifest.getStickers().get(0));
-    JobManager.Chain chain = jobManager.startChain(new StickerDownloadJob(new IncomingSticker(packId,
-                                                                                              packKey,
-                                                                                              manifest.getTitle().or(""),
-                                                                                              manifest.getAuthor().or(""),
-                                                                                              cover.getId(),
-                                                                                              "",
-                                                                                              true,
-                                                                                              !isReferencePack)));
-
+    StickerInfo           cover    = manifest.getCover().or(manifest.getStickers().get(0));
+    List<IncomingSticker> stickers = new ArrayList<>(manifest.getStickers().size() + 1);
 
+    stickers.add(new IncomingSticker(packId,
+                                     packKey,
+                                     manifest.getTitle().or(""),
+                                     manifest.getAuthor().or(""),
+                                     cover.getId(),
+                                     "",
+                                     true,
+                                     !isReferencePack));
 
     if (!isReferencePack) {
-      List<Job> jobs = new ArrayList<>(manifest.getStickers().size());
-
       for (StickerInfo stickerInfo : manifest.getStickers()) {
-        jobs.add(new StickerDownloadJob(new IncomingSticker(packId,
-                                                            packKey,
-                                                            manifest.getTitle().or(""),
-                                                            manifest.getAuthor().or(""),
-                                                            stickerInfo.getId(),
-                                                            stickerInfo.getEmoji(),
-                                                            false,
-                                                            true)));
+        stickers.add(new IncomingSticker(packId,
+                                         packKey,
+                                         manifest.getTitle().or(""),
+                                         manifest.getAuthor().or(""),
+                                         stickerInfo.getId(),
+                                         stickerInfo.getEmoji(),
+                                         false,
+                                         true));
+      }
+    }
+
+    downloadStickers(receiver, jobManager, stickerDatabase, packIdBytes, packKeyBytes, stickers);
+  }
+
+  /**
+   * Fetches the stickers in parallel and inserts them in one transaction. Any sticker that fails
+   * is handed to its own {@link StickerDownloadJob} so it keeps the usual retry behavior, rather
+   * than failing or re-downloading the whole pack.
+   */
+  private void downloadStickers(@NonNull SignalServiceMessageReceiver receiver,
+                                @NonNull JobManager jobManager,
+                                @NonNull StickerDatabase stickerDatabase,
+                                @NonNull byte[] packIdBytes,
+                                @NonNull byte[] packKeyBytes,
+                                @NonNull List<IncomingSticker> stickers)
+      throws InterruptedException
+  {
+    List<IncomingSticker>      pending = new ArrayList<>(stickers.size());
+    List<Future<SavedSticker>> futures = new ArrayList<>(stickers.size());
+
+    for (IncomingSticker sticker : stickers) {
+      if (stickerDatabase.getSticker(packId, sticker.getStickerId(), sticker.isCover()) != null) {
+        continue;
       }
 
-      chain.then(jobs);
+      pending.add(sticker);
+      futures.add(DOWNLOAD_EXECUTOR.submit(() -> stickerDatabase.saveSticker(sticker, receiver.retrieveSticker(packIdBytes, packKeyBytes, sticker.getStickerId()))));
     }
 
-    chain.enqueue();
+    List<SavedSticker>       saved       = new ArrayList<>(futures.size());
+    List<StickerDownloadJob> failedCover = new ArrayList<>(1);
+    List<StickerDownloadJob> failed      = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          saved.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          Log.w(TAG, "Failed to download sticker " + pending.get(i).getStickerId() + ", retrying separately.", e.getCause());
+
+          if (pending.get(i).isCover()) failedCover.add(new StickerDownloadJob(pending.get(i)));
+          else                          failed.add(new StickerDownloadJob(pending.get(i)));
+        }
+      }
+    } catch (InterruptedException e) {
+      for (Future<SavedSticker> future : futures) future.cancel(true);
+      for (SavedSticker sticker : saved)          sticker.delete();
+      throw e;
+    }
+
+    // A first install has no cover row until this insert; an uninstalled pack keeps one.
+    if (!isReferencePack && !stickerDatabase.isPackInstalled(packId)) {
+      boolean coverPending = !pending.isEmpty() && pending.get(0).isCover();
+      boolean newInstall   = coverPending && !stickerDatabase.isPackAvailableAsReference(packId);
+
+      if (!newInstall) {
+        Log.w(TAG, "Pack is no longer installed.");
+        for (SavedSticker sticker : saved) sticker.delete();
+        return;
+      }
+    }
+
+    stickerDatabase.insertStickers(saved);
+
+    Log.i(TAG, "Inserted " + saved.size() + " sticker(s), " + (failedCover.size() + failed.size()) + " to retry.");
+
+    if (!failedCover.isEmpty()) {
+      jobManager.startChain(failedCover).then(failed).enqueue();
+    } else if (!failed.isEmpty()) {
+      jobManager.startChain(failed).enqueue();
+    }
   }
 
   @Override
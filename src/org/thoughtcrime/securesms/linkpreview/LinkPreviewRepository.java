@@ -27,6 +27,7 @@ import org.thoughtcrime.securesms.providers.BlobProvider;
 import org.thoughtcrime.securesms.stickers.StickerRemoteUri;
 import org.thoughtcrime.securesms.stickers.StickerUrl;
 import org.thoughtcrime.securesms.util.Hex;
+import org.thoughtcrime.securesms.util.LRUCache;
 import org.thoughtcrime.securesms.util.MediaUtil;
 import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
 import org.whispersystems.libsignal.InvalidMessageException;
@@ -38,16 +39,17 @@ import org.whispersystems.signalservice.api.messages.SignalServiceStickerManifes
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class LinkPreviewRepository {
 
@@ -55,6 +57,17 @@ public class LinkPreviewRepository {
 
   private static final CacheControl NO_CACHE = new CacheControl.Builder().noCache().build();
 
+  private static final int  MAX_HEAD_CHARS   = 512 * 1024;
+  private static final int  MAX_CACHED_LINKS = 32;
+  private static final long CACHE_TTL        = TimeUnit.MINUTES.toMillis(30);
+
+  /**
+   * Previews are kept in memory only, shared by every conversation, so the same link pasted again
+   * doesn't go back to the network. The thumbnails are single session blobs, so they can't outlive
+   * the process either.
+   */
+  private static final Map<String, CachedPreview> CACHE = new LRUCache<>(MAX_CACHED_LINKS);
+
   private final OkHttpClient client;
 
   public LinkPreviewRepository() {
@@ -74,6 +87,13 @@ public class LinkPreviewRepository {
       return compositeController;
     }
 
+    Optional<LinkPreview> cached = getCachedPreview(url);
+
+    if (cached.isPresent()) {
+      callback.onComplete(cached);
+      return compositeController;
+    }
+
     RequestController metadataController;
 
     if (StickerUrl.isValidShareLink(url)) {
@@ -86,7 +106,7 @@ public class LinkPreviewRepository {
         }
 
         if (!metadata.getImageUrl().isPresent()) {
-          callback.onComplete(Optional.of(new LinkPreview(url, metadata.getTitle().get(), Optional.absent())));
+          callback.onComplete(cachePreview(new LinkPreview(url, metadata.getTitle().get(), Optional.absent())));
           return;
         }
 
@@ -94,7 +114,7 @@ public class LinkPreviewRepository {
           if (!metadata.getTitle().isPresent() && !attachment.isPresent()) {
             callback.onComplete(Optional.absent());
           } else {
-            callback.onComplete(Optional.of(new LinkPreview(url, metadata.getTitle().or(""), attachment)));
+            callback.onComplete(cachePreview(new LinkPreview(url, metadata.getTitle().or(""), attachment)));
           }
         });
 
@@ -128,9 +148,14 @@ public class LinkPreviewRepository {
           return;
         }
 
-        String            body     = response.body().string();
-        Optional<String>  title    = getProperty(body, "title");
-        Optional<String>  imageUrl = getProperty(body, "image");
+        LinkPreviewUtil.OpenGraph openGraph;
+
+        try (ResponseBody body = response.body()) {
+          openGraph = LinkPreviewUtil.parseOpenGraph(body.charStream(), MAX_HEAD_CHARS);
+        }
+
+        Optional<String> title    = unescape(openGraph.getTitle());
+        Optional<String> imageUrl = unescape(openGraph.getImageUrl());
 
         if (imageUrl.isPresent() && !LinkPreviewUtil.isWhitelistedMediaUrl(imageUrl.get())) {
           Log.i(TAG, "Image URL was invalid or for a non-whitelisted domain. Skipping.");
@@ -191,16 +216,33 @@ public class LinkPreviewRepository {
     return () -> bitmapFuture.cancel(true);
   }
 
-  private @NonNull Optional<String> getProperty(@NonNull String searchText, @NonNull String property) {
-    Pattern pattern = Pattern.compile("<\\s*meta\\s+property\\s*=\\s*\"\\s*og:" + property + "\\s*\"\\s+[^>]*content\\s*=\\s*\"(.*?)\"[^>]*/?\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-    Matcher matcher = pattern.matcher(searchText);
+  private static @NonNull Optional<String> unescape(@NonNull Optional<String> property) {
+    if (!property.isPresent()) return Optional.absent();
 
-    if (matcher.find()) {
-      String text = Html.fromHtml(matcher.group(1)).toString();
-      return TextUtils.isEmpty(text) ? Optional.absent() : Optional.of(text);
+    String text = Html.fromHtml(property.get()).toString();
+    return TextUtils.isEmpty(text) ? Optional.absent() : Optional.of(text);
+  }
+
+  private static @NonNull Optional<LinkPreview> getCachedPreview(@NonNull String url) {
+    synchronized (CACHE) {
+      CachedPreview cached = CACHE.get(url);
+
+      if (cached == null) {
+        return Optional.absent();
+      } else if (System.currentTimeMillis() - cached.timestamp > CACHE_TTL) {
+        CACHE.remove(url);
+        return Optional.absent();
+      } else {
+        return Optional.of(cached.linkPreview);
+      }
     }
+  }
 
-    return Optional.absent();
+  private static @NonNull Optional<LinkPreview> cachePreview(@NonNull LinkPreview linkPreview) {
+    synchronized (CACHE) {
+      CACHE.put(linkPreview.getUrl(), new CachedPreview(linkPreview, System.currentTimeMillis()));
+    }
+    return Optional.of(linkPreview);
   }
 
   private RequestController fetchStickerPackLinkPreview(@NonNull Context context,
@@ -253,7 +295,7 @@ public class LinkPreviewRepository {
                                                        null,
                                                        null));
 
-          callback.onComplete(Optional.of(new LinkPreview(packUrl, title, thumbnail)));
+          callback.onComplete(cachePreview(new LinkPreview(packUrl, title, thumbnail)));
         } else {
           callback.onComplete(Optional.absent());
         }
@@ -292,6 +334,16 @@ public class LinkPreviewRepository {
     }
   }
 
+  private static class CachedPreview {
+    private final LinkPreview linkPreview;
+    private final long        timestamp;
+
+    CachedPreview(@NonNull LinkPreview linkPreview, long timestamp) {
+      this.linkPreview = linkPreview;
+      this.timestamp   = timestamp;
+    }
+  }
+
   interface Callback<T> {
     void onComplete(@NonNull T result);
   }
@@ -10,7 +10,10 @@ import android.text.util.Linkify;
 import com.annimon.stream.Stream;
 
 import org.thoughtcrime.securesms.stickers.StickerUrl;
+import org.whispersystems.libsignal.util.guava.Optional;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -24,6 +27,9 @@ public final class LinkPreviewUtil {
   private static final Pattern ALL_ASCII_PATTERN     = Pattern.compile("^[\\x00-\\x7F]*$");
   private static final Pattern ALL_NON_ASCII_PATTERN = Pattern.compile("^[^\\x00-\\x7F]*$");
   private static final Pattern STICKER_URL_PATTERN   = Pattern.compile("^.*#pack_id=(.*)&pack_key=(.*)$");
+  private static final Pattern OPEN_GRAPH_TITLE      = openGraphPattern("title");
+  private static final Pattern OPEN_GRAPH_IMAGE      = openGraphPattern("image");
+  private static final Pattern END_OF_HEAD           = Pattern.compile("<\\s*(/\\s*head|body)\\b", Pattern.CASE_INSENSITIVE);
 
   /**
    * @return All whitelisted URLs in the source text.
@@ -84,4 +90,75 @@ public final class LinkPreviewUtil {
       return false;
     }
   }
+
+  /**
+   * Reads the page incrementally, stopping as soon as both the og:title and og:image are found, the
+   * end of the head is reached, or maxChars have been read. The rest of the page is never buffered.
+   *
+   * @return The raw, still HTML escaped, property values.
+   */
+  public static @NonNull OpenGraph parseOpenGraph(@NonNull Reader reader, int maxChars) throws IOException {
+    StringBuilder    html     = new StringBuilder();
+    char[]           buffer   = new char[8192];
+    Optional<String> title    = Optional.absent();
+    Optional<String> imageUrl = Optional.absent();
+    int              scanFrom = 0;
+
+    while (html.length() < maxChars) {
+      int read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - html.length()));
+      if (read == -1) break;
+
+      html.append(buffer, 0, read);
+
+      if (!title.isPresent())    title    = findProperty(OPEN_GRAPH_TITLE, html, scanFrom);
+      if (!imageUrl.isPresent()) imageUrl = findProperty(OPEN_GRAPH_IMAGE, html, scanFrom);
+
+      if (title.isPresent() && imageUrl.isPresent()) break;
+      if (END_OF_HEAD.matcher(html).find(scanFrom))   break;
+
+      // Anything before the last tag opening has been fully scanned, a tag may be cut off after it.
+      scanFrom = Math.max(scanFrom, html.lastIndexOf("<"));
+    }
+
+    return new OpenGraph(title, imageUrl, html.length());
+  }
+
+  private static @NonNull Optional<String> findProperty(@NonNull Pattern pattern, @NonNull CharSequence html, int from) {
+    Matcher matcher = pattern.matcher(html);
+
+    if (matcher.find(from)) {
+      return Optional.of(matcher.group(1));
+    }
+
+    return Optional.absent();
+  }
+
+  private static @NonNull Pattern openGraphPattern(@NonNull String property) {
+    return Pattern.compile("<\\s*meta\\s+property\\s*=\\s*\"\\s*og:" + property + "\\s*\"\\s+[^>]*content\\s*=\\s*\"(.*?)\"[^>]*/?\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+  }
+
+  public static final class OpenGraph {
+
+    private final Optional<String> title;
+    private final Optional<String> imageUrl;
+    private final int              charsRead;
+
+    OpenGraph(@NonNull Optional<String> title, @NonNull Optional<String> imageUrl, int charsRead) {
+      this.title     = title;
+      this.imageUrl  = imageUrl;
+      this.charsRead = charsRead;
+    }
+
+    public @NonNull Optional<String> getTitle() {
+      return title;
+    }
+
+    public @NonNull Optional<String> getImageUrl() {
+      return imageUrl;
+    }
+
+    public int getCharsRead() {
+      return charsRead;
+    }
+  }
 }
@@ -283,7 +283,7 @@ public class CameraXFragment extends Fragment implements CameraFragment {
 
   private boolean isVideoRecordingSupported(@NonNull Context context) {
     return Build.VERSION.SDK_INT >= 26                  &&
-           MediaConstraints.isVideoTranscodeAvailable() &&
+           MediaConstraints.isVideoRecordingAvailable() &&
            CameraXUtil.isMixedModeSupported(context)    &&
            VideoUtil.getMaxVideoDurationInSeconds(context, viewModel.getMediaConstraints()) > 0;
   }
@@ -302,7 +302,7 @@ public class CameraXFragment extends Fragment implements CameraFragment {
   }
 
   private boolean shouldDisplayVideoRecordingTooltip() {
-    return !TextSecurePreferences.hasSeenVideoRecordingTooltip(requireContext()) && MediaConstraints.isVideoTranscodeAvailable();
+    return !TextSecurePreferences.hasSeenVideoRecordingTooltip(requireContext()) && MediaConstraints.isVideoRecordingAvailable();
   }
 
   private void neverDisplayVideoRecordingTooltipAgain() {
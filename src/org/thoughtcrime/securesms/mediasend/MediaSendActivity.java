@@ -109,10 +109,11 @@ public class MediaSendActivity extends PassphraseRequiredActionBarActivity imple
 {
   private static final String TAG = MediaSendActivity.class.getSimpleName();
 
-  public static final String EXTRA_MEDIA     = "media";
-  public static final String EXTRA_MESSAGE   = "message";
-  public static final String EXTRA_TRANSPORT = "transport";
-  public static final String EXTRA_VIEW_ONCE = "view_once";
+  public static final String EXTRA_MEDIA       = "media";
+  public static final String EXTRA_MESSAGE     = "message";
+  public static final String EXTRA_TRANSPORT   = "transport";
+  public static final String EXTRA_VIEW_ONCE   = "view_once";
+  public static final String EXTRA_PRE_UPLOADS = "pre_uploads";
 
 
   private static final String KEY_RECIPIENT = "recipient_id";
@@ -917,20 +918,26 @@ public class MediaSendActivity extends PassphraseRequiredActionBarActivity imple
     ArrayList<Media> mediaList = new ArrayList<>(media);
 
     if (mediaList.size() > 0) {
-      Intent intent = new Intent();
+      viewModel.getPreUploadResults(mediaList, preUploads -> {
+        Intent intent = new Intent();
 
-      intent.putParcelableArrayListExtra(EXTRA_MEDIA, mediaList);
-      intent.putExtra(EXTRA_MESSAGE, viewModel.isViewOnce() ? "" : message);
-      intent.putExtra(EXTRA_TRANSPORT, transport);
-      intent.putExtra(EXTRA_VIEW_ONCE, viewModel.isViewOnce());
+        intent.putParcelableArrayListExtra(EXTRA_MEDIA, mediaList);
+        intent.putExtra(EXTRA_MESSAGE, viewModel.isViewOnce() ? "" : message);
+        intent.putExtra(EXTRA_TRANSPORT, transport);
+        intent.putExtra(EXTRA_VIEW_ONCE, viewModel.isViewOnce());
+        intent.putParcelableArrayListExtra(EXTRA_PRE_UPLOADS, preUploads);
 
-      setResult(RESULT_OK, intent);
+        setResult(RESULT_OK, intent);
+        finishWithSlideAnimation();
+      });
     } else {
       setResult(RESULT_CANCELED);
+      finishWithSlideAnimation();
     }
+  }
 
+  private void finishWithSlideAnimation() {
     finish();
-
     overridePendingTransition(R.anim.stationary, R.anim.camera_slide_to_bottom);
   }
 
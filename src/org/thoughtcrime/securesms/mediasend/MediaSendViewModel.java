@@ -19,6 +19,7 @@ import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.mms.MediaConstraints;
 import org.thoughtcrime.securesms.providers.BlobProvider;
 import org.thoughtcrime.securesms.recipients.Recipient;
+import org.thoughtcrime.securesms.sms.MessageSender.PreUploadResult;
 import org.thoughtcrime.securesms.util.FeatureFlags;
 import org.thoughtcrime.securesms.util.MediaUtil;
 import org.thoughtcrime.securesms.util.SingleLiveEvent;
@@ -26,11 +27,14 @@ import org.thoughtcrime.securesms.util.TextSecurePreferences;
 import org.thoughtcrime.securesms.util.Util;
 import org.whispersystems.libsignal.util.guava.Optional;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages the observable datasets available in {@link MediaSendActivity}.
@@ -53,6 +57,8 @@ class MediaSendViewModel extends ViewModel {
   private final MutableLiveData<HudState>          hudState;
   private final SingleLiveEvent<Error>             error;
   private final Map<Uri, Object>                   savedDrawState;
+  private final MediaUploadRepository              uploadRepository;
+  private final Set<Media>                         uploadedMedia;
 
   private MediaConstraints mediaConstraints;
   private CharSequence     body;
@@ -83,6 +89,8 @@ class MediaSendViewModel extends ViewModel {
     this.hudState          = new MutableLiveData<>();
     this.error             = new SingleLiveEvent<>();
     this.savedDrawState    = new HashMap<>();
+    this.uploadRepository  = new MediaUploadRepository(application);
+    this.uploadedMedia     = new HashSet<>();
     this.lastCameraCapture = Optional.absent();
     this.body              = "";
     this.buttonState       = ButtonState.GONE;
@@ -148,6 +156,8 @@ class MediaSendViewModel extends ViewModel {
           selectedMedia.setValue(filteredMedia);
           hudState.setValue(buildHudState());
         }
+
+        updateUploads();
       });
     });
   }
@@ -165,6 +175,7 @@ class MediaSendViewModel extends ViewModel {
         }
 
         selectedMedia.setValue(filteredMedia);
+        updateUploads();
       });
     });
   }
@@ -200,6 +211,7 @@ class MediaSendViewModel extends ViewModel {
     railState  = !isSms && viewOnceState != ViewOnceState.ENABLED ? RailState.INTERACTIVE : RailState.GONE;
 
     hudState.setValue(buildHudState());
+    updateUploads();
   }
 
   void onCameraStarted() {
@@ -217,6 +229,7 @@ class MediaSendViewModel extends ViewModel {
       selected.remove(lastCameraCapture.get());
       selectedMedia.setValue(selected);
       BlobProvider.getInstance().delete(application, lastCameraCapture.get().getUri());
+      updateUploads();
     }
 
     hudState.setValue(buildHudState());
@@ -364,6 +377,7 @@ class MediaSendViewModel extends ViewModel {
     }
 
     hudState.setValue(buildHudState());
+    updateUploads();
   }
 
   void onMediaCaptured(@NonNull Media media) {
@@ -384,6 +398,7 @@ class MediaSendViewModel extends ViewModel {
     selectedMedia.setValue(selected);
     position.setValue(selected.size() - 1);
     bucketId.setValue(Media.ALL_MEDIA_BUCKET_ID);
+    updateUploads();
   }
 
   void onCaptionChanged(@NonNull String newCaption) {
@@ -405,6 +420,15 @@ class MediaSendViewModel extends ViewModel {
     sentMedia = true;
   }
 
+  /**
+   * Claims the uploads started for the media being sent. See
+   * {@link MediaUploadRepository#getPreUploadResults(List, MediaUploadRepository.Callback)}.
+   */
+  void getPreUploadResults(@NonNull List<Media> media, @NonNull MediaUploadRepository.Callback<ArrayList<PreUploadResult>> callback) {
+    uploadedMedia.clear();
+    uploadRepository.getPreUploadResults(media, callback);
+  }
+
   @NonNull Map<Uri, Object> getDrawState() {
     return savedDrawState;
   }
@@ -486,6 +510,36 @@ class MediaSendViewModel extends ViewModel {
     return new HudState(hudVisible, composeVisible, updatedCaptionVisible, selectionCount, updatedButtonState, railState, updatedViewOnceState);
   }
 
+  /**
+   * Starts uploading media once it's in the editor, where the user is getting ready to send it, and
+   * cancels uploads for media that is no longer selected. Only push sends to a known recipient can
+   * be uploaded ahead of time.
+   */
+  private void updateUploads() {
+    if (isSms || recipient == null) {
+      return;
+    }
+
+    List<Media> selected = getSelectedMediaOrDefault();
+    Set<Media>  removed  = new HashSet<>(uploadedMedia);
+
+    removed.removeAll(selected);
+
+    if (!removed.isEmpty()) {
+      uploadRepository.cancelUpload(removed);
+      uploadedMedia.removeAll(removed);
+    }
+
+    if (page == Page.EDITOR) {
+      List<Media> added = Stream.of(selected).filter(m -> !uploadedMedia.contains(m)).toList();
+
+      if (!added.isEmpty()) {
+        uploadRepository.startUpload(added, recipient);
+        uploadedMedia.addAll(added);
+      }
+    }
+  }
+
   private void clearPersistedMedia() {
     Stream.of(getSelectedMediaOrDefault())
           .map(Media::getUri)
@@ -507,6 +561,8 @@ class MediaSendViewModel extends ViewModel {
     if (!sentMedia) {
       clearPersistedMedia();
     }
+
+    uploadRepository.cancelAllUploads();
   }
 
   enum Error {
@@ -0,0 +1,140 @@
+package org.thoughtcrime.securesms.mediasend;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.thoughtcrime.securesms.attachments.Attachment;
+import org.thoughtcrime.securesms.logging.Log;
+import org.thoughtcrime.securesms.mms.GifSlide;
+import org.thoughtcrime.securesms.mms.ImageSlide;
+import org.thoughtcrime.securesms.mms.VideoSlide;
+import org.thoughtcrime.securesms.recipients.Recipient;
+import org.thoughtcrime.securesms.sms.MessageSender;
+import org.thoughtcrime.securesms.sms.MessageSender.PreUploadResult;
+import org.thoughtcrime.securesms.util.MediaUtil;
+import org.thoughtcrime.securesms.util.Util;
+import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Compresses and uploads media while the user is still composing a message, so that by the time
+ * they hit send most of the work is done. Uploads are keyed by {@link Media}, which means an item
+ * that is removed or edited (and therefore rendered to a new URI at send time) won't reuse its
+ * upload, and it will be cancelled instead.
+ */
+class MediaUploadRepository {
+
+  private static final String TAG = Log.tag(MediaUploadRepository.class);
+
+  private final Context                     context;
+  private final Map<Media, PreUploadResult> uploadResults;
+  private final ExecutorService             executor;
+
+  MediaUploadRepository(@NonNull Context context) {
+    this.context       = context.getApplicationContext();
+    this.uploadResults = new LinkedHashMap<>();
+    this.executor      = SignalExecutors.newCachedSingleThreadExecutor("signal-MediaUpload");
+  }
+
+  void startUpload(@NonNull Collection<Media> mediaItems, @NonNull Recipient recipient) {
+    executor.execute(() -> {
+      for (Media media : mediaItems) {
+        uploadMediaInternal(media, recipient);
+      }
+    });
+  }
+
+  void cancelUpload(@NonNull Collection<Media> mediaItems) {
+    executor.execute(() -> {
+      for (Media media : mediaItems) {
+        cancelUploadInternal(media);
+      }
+    });
+  }
+
+  void cancelAllUploads() {
+    executor.execute(() -> {
+      for (Media media : new ArrayList<>(uploadResults.keySet())) {
+        cancelUploadInternal(media);
+      }
+    });
+  }
+
+  /**
+   * Hands over the uploads for the media that is actually being sent, in the same order, with null
+   * for any item that has no upload. Uploads for anything else are cancelled.
+   */
+  void getPreUploadResults(@NonNull List<Media> mediaItems, @NonNull Callback<ArrayList<PreUploadResult>> callback) {
+    executor.execute(() -> {
+      ArrayList<PreUploadResult> results = new ArrayList<>(mediaItems.size());
+
+      for (Media media : mediaItems) {
+        results.add(uploadResults.remove(media));
+      }
+
+      for (Media media : new ArrayList<>(uploadResults.keySet())) {
+        cancelUploadInternal(media);
+      }
+
+      Util.runOnMain(() -> callback.onResult(results));
+    });
+  }
+
+  @WorkerThread
+  private void uploadMediaInternal(@NonNull Media media, @NonNull Recipient recipient) {
+    if (uploadResults.containsKey(media)) {
+      return;
+    }
+
+    Attachment attachment = asAttachment(context, media);
+
+    if (attachment == null) {
+      Log.w(TAG, "Unable to pre-upload media with mimeType '" + media.getMimeType() + "'.");
+      return;
+    }
+
+    PreUploadResult result = MessageSender.preUploadPushAttachment(context, attachment, recipient);
+
+    if (result != null) {
+      uploadResults.put(media, result);
+    } else {
+      Log.w(TAG, "Failed to start a pre-upload.");
+    }
+  }
+
+  @WorkerThread
+  private void cancelUploadInternal(@NonNull Media media) {
+    PreUploadResult result = uploadResults.remove(media);
+
+    if (result != null) {
+      Log.i(TAG, "Cancelling pre-upload of " + result.getAttachmentId());
+      MessageSender.cancelPreUploads(context, Collections.singletonList(result));
+    }
+  }
+
+  private static @Nullable Attachment asAttachment(@NonNull Context context, @NonNull Media media) {
+    if (MediaUtil.isVideoType(media.getMimeType())) {
+      return new VideoSlide(context, media.getUri(), 0, media.getCaption().orNull()).asAttachment();
+    } else if (MediaUtil.isGif(media.getMimeType())) {
+      return new GifSlide(context, media.getUri(), 0, media.getWidth(), media.getHeight(), media.getCaption().orNull()).asAttachment();
+    } else if (MediaUtil.isImageType(media.getMimeType())) {
+      return new ImageSlide(context, media.getUri(), 0, media.getWidth(), media.getHeight(), media.getCaption().orNull(), null).asAttachment();
+    } else {
+      return null;
+    }
+  }
+
+  interface Callback<E> {
+    void onResult(@NonNull E result);
+  }
+}
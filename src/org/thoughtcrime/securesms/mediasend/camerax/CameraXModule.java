@@ -258,7 +258,7 @@ final class CameraXModule {
     mVideoCaptureConfigBuilder.setLensFacing(mCameraLensFacing);
 
     // Begin Signal Custom Code Block
-    if (MediaConstraints.isVideoTranscodeAvailable()) {
+    if (MediaConstraints.isVideoRecordingAvailable()) {
       mVideoCapture = new VideoCapture(mVideoCaptureConfigBuilder.build());
     }
     mPreviewConfigBuilder.setLensFacing(mCameraLensFacing);
@@ -636,7 +636,7 @@ final class CameraXModule {
       mImageCapture.setTargetRotation(getDisplaySurfaceRotation());
     }
 
-    if (mVideoCapture != null && MediaConstraints.isVideoTranscodeAvailable()) {
+    if (mVideoCapture != null && MediaConstraints.isVideoRecordingAvailable()) {
       mVideoCapture.setTargetRotation(getDisplaySurfaceRotation());
     }
   }
@@ -75,7 +75,18 @@ public abstract class MediaConstraints {
            MediaUtil.isVideo(attachment) && isVideoTranscodeAvailable();
   }
 
+  /**
+   * Transcoding falls back to an encrypted file when there is no memfd support, so only needs the
+   * API level.
+   */
   public static boolean isVideoTranscodeAvailable() {
-    return Build.VERSION.SDK_INT >= 26 && MemoryFileDescriptor.supported();
+    return Build.VERSION.SDK_INT >= 26;
+  }
+
+  /**
+   * Camera recordings are always held in a {@link MemoryFileDescriptor}.
+   */
+  public static boolean isVideoRecordingAvailable() {
+    return isVideoTranscodeAvailable() && MemoryFileDescriptor.supported();
   }
 }
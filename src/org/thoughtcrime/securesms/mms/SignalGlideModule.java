@@ -11,6 +11,7 @@ import com.bumptech.glide.Registry;
 import com.bumptech.glide.annotation.GlideModule;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.UnitModelLoader;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
@@ -20,6 +21,7 @@ import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.load.resource.gif.StreamGifDecoder;
 import com.bumptech.glide.module.AppGlideModule;
 
+import org.thoughtcrime.securesms.R;
 import org.thoughtcrime.securesms.blurhash.BlurHash;
 import org.thoughtcrime.securesms.blurhash.BlurHashModelLoader;
 import org.thoughtcrime.securesms.blurhash.BlurHashResourceDecoder;
@@ -54,6 +56,7 @@ public class SignalGlideModule extends AppGlideModule {
   @Override
   public void applyOptions(Context context, GlideBuilder builder) {
     builder.setLogLevel(Log.ERROR);
+    builder.setDiskCache(new InternalCacheDiskCacheFactory(context, getDiskCacheSize(context)));
 //    builder.setDiskCache(new NoopDiskCacheFactory());
   }
 
@@ -81,6 +84,10 @@ public class SignalGlideModule extends AppGlideModule {
     registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory());
   }
 
+  private static long getDiskCacheSize(@NonNull Context context) {
+    return context.getResources().getInteger(R.integer.glide_disk_cache_size_mb) * 1024L * 1024L;
+  }
+
   public static class NoopDiskCacheFactory implements DiskCache.Factory {
     @Override
     public DiskCache build() {
@@ -1,6 +1,8 @@
 package org.thoughtcrime.securesms.net;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import android.text.TextUtils;
 
 import com.annimon.stream.Stream;
@@ -12,19 +14,22 @@ import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
 import org.whispersystems.libsignal.util.Pair;
 import org.whispersystems.libsignal.util.guava.Optional;
 
-import java.io.FilterInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class ChunkedDataFetcher {
 
@@ -35,6 +40,8 @@ public class ChunkedDataFetcher {
   private static final long MB = 1024 * 1024;
   private static final long KB = 1024;
 
+  private static final int MAX_BUFFERED_CHUNKS = 4;
+
   private final OkHttpClient client;
 
   public ChunkedDataFetcher(@NonNull OkHttpClient client) {
@@ -150,31 +157,14 @@ public class ChunkedDataFetcher {
       return;
     }
 
-    SignalExecutors.UNBOUNDED.execute(() -> {
-      List<CallRequestController> controllers = Stream.of(requestPattern).map(range -> makeChunkRequest(client, url, range)).toList();
-      List<InputStream>           streams     = new ArrayList<>(controllers.size() + (firstChunk.isPresent() ? 1 : 0));
-
-      if (firstChunk.isPresent()) {
-        streams.add(firstChunk.get().first());
-      }
-
-      Stream.of(controllers).forEach(compositeController::addController);
+    ChunkedInputStream stream = new ChunkedInputStream(url, requestPattern, firstChunk.isPresent() ? firstChunk.get().first() : null);
 
-      for (CallRequestController controller : controllers) {
-        Optional<InputStream> stream = controller.getStream();
-
-        if (!stream.isPresent()) {
-          Log.w(TAG, "Stream was canceled.");
-          callback.onFailure(new IOException("Failure"));
-          compositeController.cancel();
-          return;
-        }
-
-        streams.add(stream.get());
-      }
+    compositeController.addController(stream);
+    stream.requestMore();
 
+    SignalExecutors.UNBOUNDED.execute(() -> {
       try {
-        callback.onSuccess(new InputStreamList(streams));
+        callback.onSuccess(stream);
       } catch (IOException e) {
         callback.onFailure(e);
         compositeController.cancel();
@@ -182,45 +172,6 @@ public class ChunkedDataFetcher {
     });
   }
 
-  private CallRequestController makeChunkRequest(@NonNull OkHttpClient client, @NonNull String url, @NonNull ByteRange range) {
-    Request request = new Request.Builder()
-                                 .url(url)
-                                 .cacheControl(NO_CACHE)
-                                 .addHeader("Range", "bytes=" + range.start + "-" + range.end)
-                                 .addHeader("Accept-Encoding", "identity")
-                                 .build();
-
-    Call                  call           = client.newCall(request);
-    CallRequestController callController = new CallRequestController(call);
-
-    call.enqueue(new okhttp3.Callback() {
-      @Override
-      public void onFailure(@NonNull Call call, @NonNull IOException e) {
-        callController.cancel();
-      }
-
-      @Override
-      public void onResponse(@NonNull Call call, @NonNull Response response) {
-        if (!response.isSuccessful()) {
-          callController.cancel();
-          if (response.body() != null) response.body().close();
-          return;
-        }
-
-        if (response.body() == null) {
-          callController.cancel();
-          if (response.body() != null) response.body().close();
-          return;
-        }
-
-        InputStream stream = new SkippingInputStream(ContentLengthInputStream.obtain(response.body().byteStream(), response.body().contentLength()), range.ignoreFirst);
-        callController.setStream(stream);
-      }
-    });
-
-    return callController;
-  }
-
   private Optional<Long> parseLengthFromContentRange(@NonNull String contentRange) {
     int totalStartPos = contentRange.indexOf('/');
 
@@ -277,124 +228,235 @@ public class ChunkedDataFetcher {
     }
   }
 
-  private static class SkippingInputStream extends FilterInputStream {
-
-    private long skip;
+  /**
+   * Streams the chunks of a download in order, while keeping a bounded window of chunk requests in
+   * flight. A response for the chunk the reader is currently waiting on is handed over as the live
+   * response stream, so bytes reach the reader as they come off the network. Responses for chunks
+   * further ahead are buffered in their slot until the reader gets to them.
+   */
+  private class ChunkedInputStream extends InputStream implements RequestController {
+
+    private final String          url;
+    private final List<ByteRange> ranges;
+    private final InputStream[]   chunks;
+    private final int             rangeOffset;
+    private final Set<Call>       activeCalls = new HashSet<>();
+    private final byte[]          single      = new byte[1];
+
+    private int         nextRequest;
+    private int         current;
+    private IOException failure;
+    private boolean     canceled;
+
+    ChunkedInputStream(@NonNull String url, @NonNull List<ByteRange> ranges, @Nullable InputStream firstChunk) {
+      this.url         = url;
+      this.ranges      = new ArrayList<>(ranges);
+      this.rangeOffset = firstChunk != null ? 1 : 0;
+      this.chunks      = new InputStream[ranges.size() + rangeOffset];
+      this.nextRequest = rangeOffset;
+
+      if (firstChunk != null) {
+        chunks[0] = firstChunk;
+      }
+    }
 
-    SkippingInputStream(InputStream in, long skip) {
-      super(in);
-      this.skip = skip;
+    synchronized void requestMore() {
+      while (!canceled && failure == null && nextRequest < chunks.length && nextRequest - current < MAX_BUFFERED_CHUNKS) {
+        requestChunk(nextRequest++);
+      }
     }
 
     @Override
     public int read() throws IOException {
-      if (skip != 0) {
-        skipFully(skip);
-        skip = 0;
-      }
+      int read = read(single, 0, 1);
 
-      return super.read();
+      return read == -1 ? -1 : single[0] & 0xFF;
     }
 
     @Override
-    public int read(@NonNull byte[] buffer) throws IOException {
-      if (skip != 0) {
-        skipFully(skip);
-        skip = 0;
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      InputStream chunk;
+
+      while ((chunk = awaitCurrentChunk()) != null) {
+        int read = chunk.read(buffer, offset, length);
+
+        if (read != -1) return read;
+
+        advance();
       }
 
-      return super.read(buffer);
+      return -1;
     }
 
     @Override
-    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
-      if (skip != 0) {
-        skipFully(skip);
-        skip = 0;
-      }
-
-      return super.read(buffer, offset, length);
+    public synchronized int available() throws IOException {
+      return current < chunks.length && chunks[current] != null ? chunks[current].available() : 0;
     }
 
     @Override
-    public int available() throws IOException {
-      return Util.toIntExact(super.available() - skip);
+    public void close() {
+      cancel();
     }
 
-    private void skipFully(long amount) throws IOException {
-      byte[] buffer = new byte[4096];
+    @Override
+    public synchronized void cancel() {
+      if (canceled) return;
+
+      canceled = true;
 
-      while (amount > 0) {
-        int read = super.read(buffer, 0, Math.min(buffer.length, Util.toIntExact(amount)));
+      for (Call call : activeCalls) {
+        call.cancel();
+      }
 
-        if (read != -1) amount -= read;
-        else            return;
+      for (InputStream chunk : chunks) {
+        if (chunk != null) Util.close(chunk);
       }
+
+      activeCalls.clear();
+      notifyAll();
     }
-  }
 
-  private static class InputStreamList extends InputStream {
+    private synchronized @Nullable InputStream awaitCurrentChunk() throws IOException {
+      if (current >= chunks.length) return null;
 
-    private final List<InputStream> inputStreams;
+      while (chunks[current] == null && failure == null && !canceled) {
+        Util.wait(this, 0);
+      }
 
-    private int currentStreamIndex = 0;
+      if (failure != null) throw failure;
+      if (canceled)        throw new IOException("Canceled.");
 
-    InputStreamList(List<InputStream> inputStreams) {
-      this.inputStreams = inputStreams;
+      return chunks[current];
     }
 
-    @Override
-    public int read() throws IOException {
-      while (currentStreamIndex < inputStreams.size()) {
-        int result = inputStreams.get(currentStreamIndex).read();
+    private synchronized void advance() {
+      Util.close(chunks[current]);
+      chunks[current] = null;
+      current++;
+
+      requestMore();
+    }
+
+    private void requestChunk(int index) {
+      ByteRange range   = ranges.get(index - rangeOffset);
+      Request   request = new Request.Builder()
+                                     .url(url)
+                                     .cacheControl(NO_CACHE)
+                                     .addHeader("Range", "bytes=" + range.start + "-" + range.end)
+                                     .addHeader("Accept-Encoding", "identity")
+                                     .build();
+
+      Call call = client.newCall(request);
+      activeCalls.add(call);
+
+      call.enqueue(new okhttp3.Callback() {
+        @Override
+        public void onFailure(@NonNull Call call, @NonNull IOException e) {
+          onChunkFailed(call, e);
+        }
+
+        @Override
+        public void onResponse(@NonNull Call call, @NonNull Response response) {
+          ResponseBody body = response.body();
+
+          try {
+            if (!response.isSuccessful() || body == null) {
+              throw new IOException("Non-successful response code: " + response.code());
+            }
+
+            InputStream in     = body.byteStream();
+            long        length = range.end - range.start + 1 - range.ignoreFirst;
+
+            skipFully(in, range.ignoreFirst);
+
+            if (offerLiveChunk(call, index, openLiveChunk(in, length))) {
+              return;
+            }
+
+            onChunkReceived(call, index, readChunk(in, length));
+          } catch (IOException e) {
+            onChunkFailed(call, e);
+          }
+
+          if (body != null) body.close();
+        }
+      });
+    }
 
-        if (result == -1) currentStreamIndex++;
-        else              return result;
+    /**
+     * Hands the response stream straight to the reader if it is waiting on this chunk. Once this
+     * returns true the stream belongs to the reader and is closed by {@link #advance()} or
+     * {@link #cancel()}.
+     */
+    private synchronized boolean offerLiveChunk(@NonNull Call call, int index, @NonNull InputStream chunk) {
+      if (canceled || index != current) {
+        return false;
       }
 
-      return -1;
+      activeCalls.remove(call);
+      chunks[index] = chunk;
+      notifyAll();
+
+      return true;
     }
 
-    @Override
-    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
-      while (currentStreamIndex < inputStreams.size()) {
-        int result = inputStreams.get(currentStreamIndex).read(buffer, offset, length);
+    private synchronized void onChunkReceived(@NonNull Call call, int index, @NonNull InputStream chunk) {
+      activeCalls.remove(call);
 
-        if (result == -1) currentStreamIndex++;
-        else              return result;
+      if (!canceled) {
+        chunks[index] = chunk;
+        notifyAll();
       }
-
-      return -1;
     }
 
-    @Override
-    public int read(@NonNull byte[] buffer) throws IOException {
-      return read(buffer, 0, buffer.length);
+    private synchronized void onChunkFailed(@NonNull Call call, @NonNull IOException e) {
+      activeCalls.remove(call);
+
+      if (!canceled && failure == null) {
+        Log.w(TAG, "Chunk request failed.", e);
+        failure = e;
+        notifyAll();
+      }
     }
+  }
 
-    @Override
-    public void close() throws IOException {
-      for (InputStream stream : inputStreams) {
-        try {
-          stream.close();
-        } catch (IOException ignored) {}
+  private static void skipFully(@NonNull InputStream in, long count) throws IOException {
+    while (count > 0) {
+      long skipped = in.skip(count);
+
+      if (skipped <= 0) {
+        if (in.read() == -1) throw new IOException("Chunk was shorter than expected.");
+        skipped = 1;
       }
+
+      count -= skipped;
     }
+  }
 
-    @Override
-    public int available() {
-      int total = 0;
+  /**
+   * Wraps a chunk that is handed to the reader while it is still arriving, so that a response that
+   * ends early fails the read instead of silently dropping the missing bytes.
+   */
+  @VisibleForTesting
+  static @NonNull InputStream openLiveChunk(@NonNull InputStream in, long length) {
+    return ContentLengthInputStream.obtain(in, length);
+  }
 
-      for (int i=currentStreamIndex;i<inputStreams.size();i++) {
-        try {
-          int available = inputStreams.get(i).available();
+  @VisibleForTesting
+  static @NonNull InputStream readChunk(@NonNull InputStream in, long length) throws IOException {
+    byte[] buffer = new byte[Util.toIntExact(length)];
+    int    total  = 0;
+    int    read;
 
-          if (available != -1) total += available;
-        } catch (IOException ignored) {}
-      }
+    while (total < buffer.length && (read = in.read(buffer, total, buffer.length - total)) != -1) {
+      total += read;
+    }
 
-      return total;
+    if (total < buffer.length) {
+      throw new IOException("Chunk was shorter than expected.");
     }
+
+    return new ByteArrayInputStream(buffer);
   }
 
   public interface Callback {
@@ -0,0 +1,91 @@
+package org.thoughtcrime.securesms.notifications;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses bursts of notification update requests into at most one update per window.
+ *
+ * The first request after a quiet period is delivered right away. Requests that arrive while
+ * an update is pending or inside the window are merged into a single trailing update. If any of
+ * the merged requests asked for an audible alert, the trailing update will be audible too.
+ */
+class CoalescingNotificationScheduler {
+
+  private final Timer    timer;
+  private final long     windowMillis;
+  private final Callback callback;
+
+  private boolean scheduled;
+  private boolean pendingSignal;
+  private long    lastRunTime = -1;
+
+  CoalescingNotificationScheduler(@NonNull ScheduledExecutorService executor, long windowMillis, @NonNull Callback callback) {
+    this(new ExecutorTimer(executor), windowMillis, callback);
+  }
+
+  @VisibleForTesting
+  CoalescingNotificationScheduler(@NonNull Timer timer, long windowMillis, @NonNull Callback callback) {
+    this.timer        = timer;
+    this.windowMillis = windowMillis;
+    this.callback     = callback;
+  }
+
+  synchronized void schedule(boolean signal) {
+    pendingSignal |= signal;
+
+    if (scheduled) {
+      return;
+    }
+
+    long now   = timer.currentTimeMillis();
+    long delay = lastRunTime < 0 ? 0 : Math.max(0, lastRunTime + windowMillis - now);
+
+    scheduled = true;
+    timer.schedule(this::run, delay);
+  }
+
+  private void run() {
+    boolean signal;
+
+    synchronized (this) {
+      signal        = pendingSignal;
+      pendingSignal = false;
+      scheduled     = false;
+      lastRunTime   = timer.currentTimeMillis();
+    }
+
+    callback.onUpdate(signal);
+  }
+
+  interface Callback {
+    void onUpdate(boolean signal);
+  }
+
+  interface Timer {
+    long currentTimeMillis();
+    void schedule(@NonNull Runnable task, long delayMillis);
+  }
+
+  private static class ExecutorTimer implements Timer {
+
+    private final ScheduledExecutorService executor;
+
+    private ExecutorTimer(@NonNull ScheduledExecutorService executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+      return System.currentTimeMillis();
+    }
+
+    @Override
+    public void schedule(@NonNull Runnable task, long delayMillis) {
+      executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+}
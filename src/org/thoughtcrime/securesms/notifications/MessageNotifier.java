@@ -51,6 +51,7 @@ import org.thoughtcrime.securesms.database.ThreadDatabase;
 import org.thoughtcrime.securesms.database.model.MediaMmsMessageRecord;
 import org.thoughtcrime.securesms.database.model.MessageRecord;
 import org.thoughtcrime.securesms.database.model.MmsMessageRecord;
+import org.thoughtcrime.securesms.dependencies.ApplicationDependencies;
 import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.mms.Slide;
 import org.thoughtcrime.securesms.mms.SlideDeck;
@@ -70,6 +71,7 @@ import java.util.ListIterator;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -94,14 +96,25 @@ public class MessageNotifier {
   private static final String NOTIFICATION_GROUP        = "messages";
   private static final long   MIN_AUDIBLE_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(2);
   private static final long   DESKTOP_ACTIVITY_PERIOD   = TimeUnit.MINUTES.toMillis(1);
+  private static final long   UPDATE_COALESCE_MILLIS    = 500;
 
   private volatile static       long               visibleThread                = -1;
   private volatile static       long               lastDesktopActivityTimestamp = -1;
   private volatile static       long               lastAudibleNotification      = -1;
   private          static final CancelableExecutor executor                     = new CancelableExecutor();
 
+  private          static final ScheduledExecutorService        updateExecutor  = Executors.newSingleThreadScheduledExecutor();
+  private volatile static       CoalescingNotificationScheduler updateScheduler = null;
+
   public static void setVisibleThread(long threadId) {
-    visibleThread = threadId;
+    if (visibleThread != threadId) {
+      visibleThread = threadId;
+      ApplicationDependencies.getJobManager().wakeUp();
+    }
+  }
+
+  public static long getVisibleThread() {
+    return visibleThread;
   }
 
   public static void setLastDesktopActivityTimestamp(long timestamp) {
@@ -195,12 +208,16 @@ public class MessageNotifier {
     }
   }
 
+  /**
+   * Requests a rebuild of the message notifications. The rebuild runs on a background executor and
+   * may be merged with other requests, so it has not necessarily been posted when this returns.
+   */
   public static void updateNotification(@NonNull Context context) {
     if (!TextSecurePreferences.isNotificationsEnabled(context)) {
       return;
     }
 
-    updateNotification(context, false, 0);
+    getUpdateScheduler(context).schedule(false);
   }
 
   public static void updateNotification(@NonNull Context context, long threadId)
@@ -237,10 +254,26 @@ public class MessageNotifier {
     if (isVisible) {
       sendInThreadNotification(context, threads.getRecipientForThreadId(threadId));
     } else {
-      updateNotification(context, signal, 0);
+      getUpdateScheduler(context).schedule(signal);
     }
   }
 
+  private static @NonNull CoalescingNotificationScheduler getUpdateScheduler(@NonNull Context context) {
+    if (updateScheduler == null) {
+      synchronized (MessageNotifier.class) {
+        if (updateScheduler == null) {
+          final Context applicationContext = context.getApplicationContext();
+
+          updateScheduler = new CoalescingNotificationScheduler(updateExecutor,
+                                                                UPDATE_COALESCE_MILLIS,
+                                                                signal -> updateNotification(applicationContext, signal, 0));
+        }
+      }
+    }
+
+    return updateScheduler;
+  }
+
   private static void updateNotification(@NonNull Context context,
                                          boolean signal,
                                          int     reminderCount)
@@ -31,6 +31,7 @@ import org.thoughtcrime.securesms.logging.Log;
 
 import org.thoughtcrime.securesms.attachments.AttachmentId;
 import org.thoughtcrime.securesms.attachments.DatabaseAttachment;
+import org.thoughtcrime.securesms.crypto.ModernDecryptingPartReader;
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.mms.PartUriParser;
 import org.thoughtcrime.securesms.service.KeyCachingService;
@@ -158,6 +159,12 @@ public class PartProvider extends ContentProvider {
   }
 
   private ParcelFileDescriptor getParcelStreamForAttachment(AttachmentId attachmentId) throws IOException {
+    try (ModernDecryptingPartReader reader = DatabaseFactory.getAttachmentDatabase(getContext()).getAttachmentReader(attachmentId)) {
+      if (reader != null) {
+        return getParcelStreamForReader(attachmentId, reader);
+      }
+    }
+
     long       plaintextLength = Util.getStreamLength(DatabaseFactory.getAttachmentDatabase(getContext()).getAttachmentStream(attachmentId, 0));
     MemoryFile memoryFile      = new MemoryFile(attachmentId.toString(), Util.toIntExact(plaintextLength));
 
@@ -170,4 +177,20 @@ public class PartProvider extends ContentProvider {
 
     return MemoryFileUtil.getParcelFileDescriptor(memoryFile);
   }
+
+  private ParcelFileDescriptor getParcelStreamForReader(@NonNull AttachmentId attachmentId, @NonNull ModernDecryptingPartReader reader) throws IOException {
+    MemoryFile memoryFile = new MemoryFile(attachmentId.toString(), Util.toIntExact(reader.getSize()));
+    byte[]     buffer     = new byte[64 * 1024];
+    long       position   = 0;
+    int        read;
+
+    try (OutputStream out = memoryFile.getOutputStream()) {
+      while ((read = reader.read(position, buffer, 0, buffer.length)) != -1) {
+        out.write(buffer, 0, read);
+        position += read;
+      }
+    }
+
+    return MemoryFileUtil.getParcelFileDescriptor(memoryFile);
+  }
 }
@@ -13,15 +13,12 @@ import com.annimon.stream.Stream;
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.database.RecipientDatabase;
 import org.thoughtcrime.securesms.database.RecipientDatabase.MissingRecipientError;
-import org.thoughtcrime.securesms.database.ThreadDatabase;
-import org.thoughtcrime.securesms.database.model.ThreadRecord;
 import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.util.LRUCache;
 import org.thoughtcrime.securesms.util.TextSecurePreferences;
 import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
 import org.whispersystems.libsignal.util.guava.Optional;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -109,23 +106,12 @@ public final class LiveRecipientCache {
     }
 
     SignalExecutors.BOUNDED.execute(() -> {
-      ThreadDatabase threadDatabase = DatabaseFactory.getThreadDatabase(context);
+      List<RecipientId> recipientIds = DatabaseFactory.getThreadDatabase(context).getRecentConversationRecipientIds(CACHE_WARM_MAX);
 
-      try (ThreadDatabase.Reader reader = threadDatabase.readerFor(threadDatabase.getConversationList())) {
-        int             i          = 0;
-        ThreadRecord    record     = null;
-        List<Recipient> recipients = new ArrayList<>();
+      Log.d(TAG, "Warming up " + recipientIds.size() + " recipients.");
 
-        while ((record = reader.getNext()) != null && i < CACHE_WARM_MAX) {
-          recipients.add(record.getRecipient());
-          i++;
-        }
-
-        Log.d(TAG, "Warming up " + recipients.size() + " recipients.");
-
-        Collections.reverse(recipients);
-        Stream.of(recipients).map(Recipient::getId).forEach(this::getLive);
-      }
+      Collections.reverse(recipientIds);
+      Stream.of(recipientIds).forEach(this::getLive);
     });
   }
 
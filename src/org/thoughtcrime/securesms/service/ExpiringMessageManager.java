@@ -5,11 +5,14 @@ import org.thoughtcrime.securesms.logging.Log;
 
 import org.thoughtcrime.securesms.database.DatabaseFactory;
 import org.thoughtcrime.securesms.database.MmsDatabase;
+import org.thoughtcrime.securesms.database.MmsSmsDatabase;
 import org.thoughtcrime.securesms.database.SmsDatabase;
 import org.thoughtcrime.securesms.database.model.MessageRecord;
 
 import java.util.Comparator;
-import java.util.TreeSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -17,17 +20,21 @@ public class ExpiringMessageManager {
 
   private static final String TAG = ExpiringMessageManager.class.getSimpleName();
 
-  private final TreeSet<ExpiringMessageReference> expiringMessageReferences = new TreeSet<>(new ExpiringMessageComparator());
-  private final Executor                          executor                  = Executors.newSingleThreadExecutor();
+  private static final int MAX_BATCH_SIZE = 500;
 
-  private final SmsDatabase smsDatabase;
-  private final MmsDatabase mmsDatabase;
-  private final Context     context;
+  private final PriorityQueue<ExpiringMessageReference> expiringMessageReferences = new PriorityQueue<>(11, new ExpiringMessageComparator());
+  private final Executor                                executor                  = Executors.newSingleThreadExecutor();
+
+  private final SmsDatabase    smsDatabase;
+  private final MmsDatabase    mmsDatabase;
+  private final MmsSmsDatabase mmsSmsDatabase;
+  private final Context        context;
 
   public ExpiringMessageManager(Context context) {
-    this.context     = context.getApplicationContext();
-    this.smsDatabase = DatabaseFactory.getSmsDatabase(context);
-    this.mmsDatabase = DatabaseFactory.getMmsDatabase(context);
+    this.context        = context.getApplicationContext();
+    this.smsDatabase    = DatabaseFactory.getSmsDatabase(context);
+    this.mmsDatabase    = DatabaseFactory.getMmsDatabase(context);
+    this.mmsSmsDatabase = DatabaseFactory.getMmsSmsDatabase(context);
 
     executor.execute(new LoadTask());
     executor.execute(new ProcessTask());
@@ -57,18 +64,24 @@ public class ExpiringMessageManager {
       SmsDatabase.Reader smsReader = smsDatabase.readerFor(smsDatabase.getExpirationStartedMessages());
       MmsDatabase.Reader mmsReader = mmsDatabase.getExpireStartedMessages();
 
-      MessageRecord messageRecord;
+      List<ExpiringMessageReference> references = new LinkedList<>();
+      MessageRecord                  messageRecord;
 
       while ((messageRecord = smsReader.getNext()) != null) {
-        expiringMessageReferences.add(new ExpiringMessageReference(messageRecord.getId(),
-                                                                   messageRecord.isMms(),
-                                                                   messageRecord.getExpireStarted() + messageRecord.getExpiresIn()));
+        references.add(new ExpiringMessageReference(messageRecord.getId(),
+                                                    messageRecord.isMms(),
+                                                    messageRecord.getExpireStarted() + messageRecord.getExpiresIn()));
       }
 
       while ((messageRecord = mmsReader.getNext()) != null) {
-        expiringMessageReferences.add(new ExpiringMessageReference(messageRecord.getId(),
-                                                                   messageRecord.isMms(),
-                                                                   messageRecord.getExpireStarted() + messageRecord.getExpiresIn()));
+        references.add(new ExpiringMessageReference(messageRecord.getId(),
+                                                    messageRecord.isMms(),
+                                                    messageRecord.getExpireStarted() + messageRecord.getExpiresIn()));
+      }
+
+      synchronized (expiringMessageReferences) {
+        expiringMessageReferences.addAll(references);
+        expiringMessageReferences.notifyAll();
       }
 
       smsReader.close();
@@ -80,21 +93,29 @@ public class ExpiringMessageManager {
   private class ProcessTask implements Runnable {
     public void run() {
       while (true) {
-        ExpiringMessageReference expiredMessage = null;
+        List<Long> expiredSmsIds = new LinkedList<>();
+        List<Long> expiredMmsIds = new LinkedList<>();
 
         synchronized (expiringMessageReferences) {
           try {
             while (expiringMessageReferences.isEmpty()) expiringMessageReferences.wait();
 
-            ExpiringMessageReference nextReference = expiringMessageReferences.first();
-            long                     waitTime      = nextReference.expiresAtMillis - System.currentTimeMillis();
+            long now      = System.currentTimeMillis();
+            long waitTime = expiringMessageReferences.peek().expiresAtMillis - now;
 
             if (waitTime > 0) {
               ExpirationListener.setAlarm(context, waitTime);
               expiringMessageReferences.wait(waitTime);
             } else {
-              expiredMessage = nextReference;
-              expiringMessageReferences.remove(nextReference);
+              while (!expiringMessageReferences.isEmpty()                         &&
+                     expiringMessageReferences.peek().expiresAtMillis <= now       &&
+                     expiredSmsIds.size() + expiredMmsIds.size() < MAX_BATCH_SIZE)
+              {
+                ExpiringMessageReference expiredMessage = expiringMessageReferences.poll();
+
+                if (expiredMessage.mms) expiredMmsIds.add(expiredMessage.id);
+                else                    expiredSmsIds.add(expiredMessage.id);
+              }
             }
 
           } catch (InterruptedException e) {
@@ -102,9 +123,9 @@ public class ExpiringMessageManager {
           }
         }
 
-        if (expiredMessage != null) {
-          if (expiredMessage.mms) mmsDatabase.delete(expiredMessage.id);
-          else                    smsDatabase.deleteMessage(expiredMessage.id);
+        if (!expiredSmsIds.isEmpty() || !expiredMmsIds.isEmpty()) {
+          Log.i(TAG, "Deleting " + expiredSmsIds.size() + " expired SMS and " + expiredMmsIds.size() + " expired MMS messages.");
+          mmsSmsDatabase.deleteMessages(expiredSmsIds, expiredMmsIds);
         }
       }
     }
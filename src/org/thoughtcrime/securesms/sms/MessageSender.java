@@ -17,8 +17,12 @@
 package org.thoughtcrime.securesms.sms;
 
 import android.content.Context;
+import android.os.Parcel;
+import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
 import com.annimon.stream.Stream;
 
@@ -64,8 +68,12 @@ import org.whispersystems.signalservice.api.push.ContactTokenDetails;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 public class MessageSender {
 
@@ -126,6 +134,148 @@ public class MessageSender {
     }
   }
 
+  /**
+   * Like {@link #send(Context, OutgoingMediaMessage, long, boolean, SmsDatabase.InsertListener)} for
+   * a push message, except that the message's first attachments are swapped, in order, for ones
+   * that were pre-uploaded while it was composed. Attachments without a pre-upload, either because
+   * its entry is null or because it comes after them, like a long text body, are inserted and
+   * uploaded as usual.
+   */
+  public static long sendPushWithPreUploadedMedia(@NonNull Context context,
+                                                  @NonNull OutgoingMediaMessage message,
+                                                  @NonNull List<PreUploadResult> preUploadResults,
+                                                  long threadId,
+                                                  @Nullable SmsDatabase.InsertListener insertListener)
+  {
+    AttachmentDatabase attachmentDatabase = DatabaseFactory.getAttachmentDatabase(context);
+    List<Attachment>   attachments        = new ArrayList<>(message.getAttachments().size());
+    Set<AttachmentId>  preUploaded        = new HashSet<>();
+
+    if (preUploadResults.size() > message.getAttachments().size()) {
+      Log.w(TAG, "More pre-uploads than attachments. Sending without them.");
+      cancelPreUploads(context, preUploadResults);
+      return send(context, message, threadId, false, insertListener);
+    }
+
+    for (int i = 0; i < message.getAttachments().size(); i++) {
+      Attachment         attachment = message.getAttachments().get(i);
+      DatabaseAttachment preUpload  = null;
+
+      if (i < preUploadResults.size() && preUploadResults.get(i) != null) {
+        AttachmentId attachmentId = preUploadResults.get(i).getAttachmentId();
+
+        attachmentDatabase.updateAttachmentCaption(attachmentId, attachment.getCaption());
+        preUpload = attachmentDatabase.getAttachment(attachmentId);
+      }
+
+      if (preUpload != null && preUpload.getMmsId() == AttachmentDatabase.PREUPLOAD_MESSAGE_ID) {
+        attachments.add(preUpload);
+        preUploaded.add(preUpload.getAttachmentId());
+      } else {
+        attachments.add(attachment);
+      }
+    }
+
+    Log.i(TAG, "sendPushWithPreUploadedMedia() - Sending with " + preUploaded.size() + " of " + attachments.size() + " attachment(s) pre-uploaded.");
+
+    try {
+      OutgoingSecureMediaMessage preUploadMessage = new OutgoingSecureMediaMessage(message.getRecipient(),
+                                                                                   message.getBody(),
+                                                                                   attachments,
+                                                                                   message.getSentTimeMillis(),
+                                                                                   message.getDistributionType(),
+                                                                                   message.getExpiresIn(),
+                                                                                   message.isViewOnce(),
+                                                                                   message.getOutgoingQuote(),
+                                                                                   message.getSharedContacts(),
+                                                                                   message.getLinkPreviews());
+
+      ThreadDatabase threadDatabase = DatabaseFactory.getThreadDatabase(context);
+      MmsDatabase    database       = DatabaseFactory.getMmsDatabase(context);
+      Recipient      recipient      = message.getRecipient();
+      JobManager     jobManager     = ApplicationDependencies.getJobManager();
+
+      long allocatedThreadId;
+
+      if (threadId == -1) {
+        allocatedThreadId = threadDatabase.getThreadIdFor(recipient, message.getDistributionType());
+      } else {
+        allocatedThreadId = threadId;
+      }
+
+      long messageId = database.insertMessageOutbox(preUploadMessage, allocatedThreadId, false, insertListener);
+
+      if (isLocalSelfSend(context, recipient, false)) {
+        sendLocalMediaSelf(context, messageId);
+      } else if (isGroupPushSend(recipient)) {
+        PushGroupSendJob.enqueue(context, jobManager, messageId, recipient.getId(), null, preUploaded);
+      } else {
+        PushMediaSendJob.enqueue(context, jobManager, messageId, recipient, preUploaded);
+      }
+
+      return allocatedThreadId;
+    } catch (MmsException e) {
+      Log.w(TAG, e);
+      return threadId;
+    }
+  }
+
+  /**
+   * Inserts an attachment that isn't part of a message yet and starts compressing and uploading it,
+   * so that the work is already done, or at least underway, by the time the user hits send.
+   *
+   * @return A result to pass along to {@link #sendPushWithPreUploadedMedia} or
+   *         {@link #cancelPreUploads}, or null if the recipient can't be sent media over push.
+   */
+  @WorkerThread
+  public static @Nullable PreUploadResult preUploadPushAttachment(@NonNull Context context, @NonNull Attachment attachment, @NonNull Recipient recipient) {
+    if (isLocalSelfSend(context, recipient, false) || !(isGroupPushSend(recipient) || isPushMediaSend(context, recipient))) {
+      Log.i(TAG, "preUploadPushAttachment() - Not a push recipient. Skipping.");
+      return null;
+    }
+
+    try {
+      DatabaseAttachment databaseAttachment = DatabaseFactory.getAttachmentDatabase(context).insertAttachmentForPreUpload(attachment);
+      Job                compressionJob     = AttachmentCompressionJob.fromAttachment(databaseAttachment, false, -1);
+      Job                uploadJob          = new AttachmentUploadJob(databaseAttachment.getAttachmentId());
+
+      ApplicationDependencies.getJobManager()
+                             .startChain(compressionJob)
+                             .then(uploadJob)
+                             .enqueue();
+
+      return new PreUploadResult(databaseAttachment.getAttachmentId(), Arrays.asList(compressionJob.getId(), uploadJob.getId()));
+    } catch (MmsException e) {
+      Log.w(TAG, "preUploadPushAttachment() - Failed to insert attachment.", e);
+      return null;
+    }
+  }
+
+  /**
+   * Stops the jobs behind pre-uploads that won't be sent and deletes their attachments.
+   */
+  @WorkerThread
+  public static void cancelPreUploads(@NonNull Context context, @NonNull Collection<PreUploadResult> preUploadResults) {
+    JobManager         jobManager         = ApplicationDependencies.getJobManager();
+    AttachmentDatabase attachmentDatabase = DatabaseFactory.getAttachmentDatabase(context);
+
+    for (PreUploadResult result : preUploadResults) {
+      if (result == null) {
+        continue;
+      }
+
+      for (String jobId : result.getJobIds()) {
+        jobManager.cancel(jobId);
+      }
+
+      DatabaseAttachment attachment = attachmentDatabase.getAttachment(result.getAttachmentId());
+
+      if (attachment != null && attachment.getMmsId() == AttachmentDatabase.PREUPLOAD_MESSAGE_ID) {
+        attachmentDatabase.deleteAttachment(result.getAttachmentId());
+      }
+    }
+  }
+
   public static void sendMediaBroadcast(@NonNull Context context, @NonNull List<OutgoingSecureMediaMessage> messages) {
     if (messages.isEmpty()) {
       Log.w(TAG, "sendMediaBroadcast() - No messages!");
@@ -216,7 +366,7 @@ public class MessageSender {
 
       JobManager.Chain chain = ApplicationDependencies.getJobManager()
                                                       .startChain(compressionJobs)
-                                                      .then(uploadJobs);
+                                                      .thenEach(uploadJobs);
 
       if (copyJobs.size() > 0) {
         chain = chain.then(copyJobs);
@@ -401,6 +551,58 @@ public class MessageSender {
     }
   }
 
+  /**
+   * An attachment that was pre-uploaded while its message was composed, along with the IDs of the
+   * jobs compressing and uploading it.
+   */
+  public static final class PreUploadResult implements Parcelable {
+
+    private final AttachmentId       attachmentId;
+    private final Collection<String> jobIds;
+
+    PreUploadResult(@NonNull AttachmentId attachmentId, @NonNull Collection<String> jobIds) {
+      this.attachmentId = attachmentId;
+      this.jobIds       = jobIds;
+    }
+
+    private PreUploadResult(@NonNull Parcel in) {
+      this.attachmentId = new AttachmentId(in.readLong(), in.readLong());
+      this.jobIds       = in.createStringArrayList();
+    }
+
+    public @NonNull AttachmentId getAttachmentId() {
+      return attachmentId;
+    }
+
+    public @NonNull Collection<String> getJobIds() {
+      return jobIds;
+    }
+
+    @Override
+    public int describeContents() {
+      return 0;
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel dest, int flags) {
+      dest.writeLong(attachmentId.getRowId());
+      dest.writeLong(attachmentId.getUniqueId());
+      dest.writeStringList(new ArrayList<>(jobIds));
+    }
+
+    public static final Creator<PreUploadResult> CREATOR = new Creator<PreUploadResult>() {
+      @Override
+      public PreUploadResult createFromParcel(Parcel in) {
+        return new PreUploadResult(in);
+      }
+
+      @Override
+      public PreUploadResult[] newArray(int size) {
+        return new PreUploadResult[size];
+      }
+    };
+  }
+
   private static boolean isValidBroadcastList(@NonNull List<OutgoingSecureMediaMessage> messages) {
     if (messages.isEmpty()) {
       return false;
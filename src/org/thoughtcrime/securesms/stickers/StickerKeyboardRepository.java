@@ -1,6 +1,5 @@
 package org.thoughtcrime.securesms.stickers;
 
-import android.database.Cursor;
 import androidx.annotation.NonNull;
 
 import org.thoughtcrime.securesms.database.StickerDatabase;
@@ -34,11 +33,7 @@ final class StickerKeyboardRepository {
         }
       }
 
-      boolean hasRecents;
-
-      try (Cursor recentsCursor = stickerDatabase.getRecentlyUsedStickers(1)) {
-        hasRecents = recentsCursor != null && recentsCursor.moveToFirst();
-      }
+      boolean hasRecents = !stickerDatabase.getRecentlyUsedStickerList(RECENT_LIMIT).isEmpty();
 
       callback.onComplete(new PackListResult(packs, hasRecents));
     });
@@ -60,18 +55,7 @@ final class StickerKeyboardRepository {
   }
 
   void getRecentStickers(@NonNull Callback<List<StickerRecord>> callback) {
-    SignalExecutors.BOUNDED.execute(() -> {
-      List<StickerRecord> stickers = new ArrayList<>();
-
-      try (StickerRecordReader reader = new StickerRecordReader(stickerDatabase.getRecentlyUsedStickers(RECENT_LIMIT))) {
-        StickerRecord sticker;
-        while ((sticker = reader.getNext()) != null) {
-          stickers.add(sticker);
-        }
-      }
-
-      callback.onComplete(stickers);
-    });
+    SignalExecutors.BOUNDED.execute(() -> callback.onComplete(stickerDatabase.getRecentlyUsedStickerList(RECENT_LIMIT)));
   }
 
   static class PackListResult {
@@ -12,6 +12,8 @@ import org.thoughtcrime.securesms.database.model.StickerPackRecord;
 import org.thoughtcrime.securesms.database.model.StickerRecord;
 import org.thoughtcrime.securesms.util.concurrent.SignalExecutors;
 
+import java.util.List;
+
 public final class StickerSearchRepository {
 
   private final StickerDatabase    stickerDatabase;
@@ -22,16 +24,8 @@ public final class StickerSearchRepository {
     this.attachmentDatabase = DatabaseFactory.getAttachmentDatabase(context);
   }
 
-  public void searchByEmoji(@NonNull String emoji, @NonNull Callback<CursorList<StickerRecord>> callback) {
-    SignalExecutors.BOUNDED.execute(() -> {
-      Cursor cursor = stickerDatabase.getStickersByEmoji(emoji);
-
-      if (cursor != null) {
-        callback.onResult(new CursorList<>(cursor, new StickerModelBuilder()));
-      } else {
-        callback.onResult(CursorList.emptyList());
-      }
-    });
+  public void searchByEmoji(@NonNull String emoji, @NonNull Callback<List<StickerRecord>> callback) {
+    SignalExecutors.BOUNDED.execute(() -> callback.onResult(stickerDatabase.getStickersByEmoji(emoji)));
   }
 
   public void getStickerFeatureAvailability(@NonNull Callback<Boolean> callback) {
@@ -46,13 +40,6 @@ public final class StickerSearchRepository {
     });
   }
 
-  private static class StickerModelBuilder implements CursorList.ModelBuilder<StickerRecord> {
-    @Override
-    public StickerRecord build(@NonNull Cursor cursor) {
-      return new StickerDatabase.StickerRecordReader(cursor).getCurrent();
-    }
-  }
-
   private static class StickerPackModelBuilder implements CursorList.ModelBuilder<StickerPackRecord> {
     @Override
     public StickerPackRecord build(@NonNull Cursor cursor) {
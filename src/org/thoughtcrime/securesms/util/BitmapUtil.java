@@ -45,6 +45,8 @@ public class BitmapUtil {
   private static final int MAX_COMPRESSION_ATTEMPTS         = 5;
   private static final int MIN_COMPRESSION_QUALITY_DECREASE = 5;
   private static final int MAX_IMAGE_HALF_SCALES            = 3;
+  private static final int MIN_TRIAL_ENCODE_PIXELS          = 1024 * 1024;
+  private static final int MAX_ESTIMATED_QUALITY_DROP       = 20;
 
   @WorkerThread
   public static <T> ScaleResult createScaledBytes(@NonNull Context context, @NonNull T model, @NonNull MediaConstraints constraints)
@@ -76,84 +78,145 @@ public class BitmapUtil {
                                                   @NonNull CompressFormat format)
       throws BitmapDecodingException
   {
-    return createScaledBytes(context, model, maxImageWidth, maxImageHeight, maxImageSize, format, 1, 0);
-  }
+    Bitmap scaledBitmap;
 
-  @WorkerThread
-  private static <T> ScaleResult createScaledBytes(@NonNull Context context,
-                                                   @NonNull T model,
-                                                   final int maxImageWidth,
-                                                   final int maxImageHeight,
-                                                   final int maxImageSize,
-                                                   @NonNull CompressFormat format,
-                                                   final int sizeAttempt,
-                                                   int totalAttempts)
-      throws BitmapDecodingException
-  {
     try {
-      int    quality  = MAX_COMPRESSION_QUALITY;
-      int    attempts = 0;
-      byte[] bytes;
-
-      Bitmap scaledBitmap = GlideApp.with(context.getApplicationContext())
-                                    .asBitmap()
-                                    .load(model)
-                                    .skipMemoryCache(true)
-                                    .diskCacheStrategy(DiskCacheStrategy.NONE)
-                                    .centerInside()
-                                    .submit(maxImageWidth, maxImageHeight)
-                                    .get();
-
-      if (scaledBitmap == null) {
-        throw new BitmapDecodingException("Unable to decode image");
-      }
+      scaledBitmap = GlideApp.with(context.getApplicationContext())
+                             .asBitmap()
+                             .load(model)
+                             .skipMemoryCache(true)
+                             .diskCacheStrategy(DiskCacheStrategy.NONE)
+                             .centerInside()
+                             .submit(maxImageWidth, maxImageHeight)
+                             .get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new BitmapDecodingException(e);
+    }
+
+    if (scaledBitmap == null) {
+      throw new BitmapDecodingException("Unable to decode image");
+    }
+
+    Log.i(TAG, String.format(Locale.US,"Initial scaled bitmap has size of %d bytes.", scaledBitmap.getByteCount()));
+    Log.i(TAG, String.format(Locale.US, "Max dimensions %d x %d, %d bytes", maxImageWidth, maxImageHeight, maxImageSize));
 
-      Log.i(TAG, String.format(Locale.US,"Initial scaled bitmap has size of %d bytes.", scaledBitmap.getByteCount()));
-      Log.i(TAG, String.format(Locale.US, "Max dimensions %d x %d, %d bytes", maxImageWidth, maxImageHeight, maxImageSize));
+    ByteArrayOutputStream baos          = new ByteArrayOutputStream();
+    byte[]                bytes         = null;
+    int                   quality       = MAX_COMPRESSION_QUALITY;
+    int                   sizeAttempt   = 1;
+    int                   totalAttempts = 0;
 
-      try {
-        do {
+    try {
+      while (true) {
+        int passQuality = -1;
+        int failQuality = MAX_COMPRESSION_QUALITY + 1;
+        int attempt     = estimateStartingQuality(scaledBitmap, format, maxImageSize, baos);
+
+        for (int attempts = 0; attempts <= MAX_COMPRESSION_ATTEMPTS; attempts++) {
           totalAttempts++;
-          ByteArrayOutputStream baos = new ByteArrayOutputStream();
-          scaledBitmap.compress(format, quality, baos);
-          bytes = baos.toByteArray();
+          baos.reset();
+          scaledBitmap.compress(format, attempt, baos);
 
-          Log.d(TAG, "iteration with quality " + quality + " size " + bytes.length + " bytes.");
-          if (quality == MIN_COMPRESSION_QUALITY) break;
+          Log.d(TAG, "iteration with quality " + attempt + " size " + baos.size() + " bytes.");
 
-          int nextQuality = (int)Math.floor(quality * Math.sqrt((double)maxImageSize / bytes.length));
-          if (quality - nextQuality < MIN_COMPRESSION_QUALITY_DECREASE) {
-            nextQuality = quality - MIN_COMPRESSION_QUALITY_DECREASE;
+          if (baos.size() <= maxImageSize) {
+            passQuality = attempt;
+            bytes       = baos.toByteArray();
+          } else {
+            failQuality = attempt;
           }
-          quality = Math.max(nextQuality, MIN_COMPRESSION_QUALITY);
-        }
-        while (bytes.length > maxImageSize && attempts++ < MAX_COMPRESSION_ATTEMPTS);
-
-        if (bytes.length > maxImageSize) {
-          if (sizeAttempt <= MAX_IMAGE_HALF_SCALES) {
-            scaledBitmap.recycle();
-            scaledBitmap = null;
 
-            Log.i(TAG, "Halving dimensions and retrying.");
-            return createScaledBytes(context, model, maxImageWidth / 2, maxImageHeight / 2, maxImageSize, format, sizeAttempt + 1, totalAttempts);
+          if (passQuality == -1) {
+            if (attempt == MIN_COMPRESSION_QUALITY) break;
+            attempt = getNextQuality(attempt, baos.size(), maxImageSize);
           } else {
-            throw new BitmapDecodingException("Unable to scale image below " + bytes.length + " bytes.");
+            if (failQuality - passQuality <= MIN_COMPRESSION_QUALITY_DECREASE) break;
+            attempt = (passQuality + failQuality) / 2;
           }
         }
 
-        if (bytes.length <= 0) {
-          throw new BitmapDecodingException("Decoding failed. Bitmap has a length of " + bytes.length + " bytes.");
+        if (passQuality != -1) {
+          quality = passQuality;
+          break;
         }
 
-        Log.i(TAG, String.format(Locale.US, "createScaledBytes(%s) -> quality %d, %d attempt(s) over %d sizes.", model.getClass().getName(), quality, totalAttempts, sizeAttempt));
+        if (sizeAttempt > MAX_IMAGE_HALF_SCALES) {
+          throw new BitmapDecodingException("Unable to scale image below " + baos.size() + " bytes.");
+        }
 
-        return new ScaleResult(bytes, scaledBitmap.getWidth(), scaledBitmap.getHeight());
-      } finally {
-        if (scaledBitmap != null) scaledBitmap.recycle();
+        Log.i(TAG, "Halving dimensions and retrying.");
+
+        Bitmap halved = Bitmap.createScaledBitmap(scaledBitmap,
+                                                  Math.max(1, scaledBitmap.getWidth() / 2),
+                                                  Math.max(1, scaledBitmap.getHeight() / 2),
+                                                  true);
+
+        if (halved != scaledBitmap) {
+          scaledBitmap.recycle();
+          scaledBitmap = halved;
+        }
+
+        sizeAttempt++;
       }
-    } catch (InterruptedException | ExecutionException e) {
-      throw new BitmapDecodingException(e);
+
+      if (bytes.length <= 0) {
+        throw new BitmapDecodingException("Decoding failed. Bitmap has a length of " + bytes.length + " bytes.");
+      }
+
+      Log.i(TAG, String.format(Locale.US, "createScaledBytes(%s) -> quality %d, %d attempt(s) over %d sizes.", model.getClass().getName(), quality, totalAttempts, sizeAttempt));
+
+      return new ScaleResult(bytes, scaledBitmap.getWidth(), scaledBitmap.getHeight());
+    } finally {
+      scaledBitmap.recycle();
+    }
+  }
+
+  /**
+   * For large bitmaps, encodes a half-scale copy at full quality first and extrapolates the
+   * full-size output from it, so that an image that is clearly over budget starts at a predicted
+   * quality instead of spending a full-size encode at {@link #MAX_COMPRESSION_QUALITY}.
+   * <p>
+   * A half-scale copy has more detail per pixel, so four times its size overestimates the full
+   * image. The prediction is only used when even that is well over budget, the drop is limited to
+   * {@link #MAX_ESTIMATED_QUALITY_DROP}, and the search in {@link #createScaledBytes} will still
+   * raise the quality again if the first attempt turns out to fit.
+   */
+  private static int estimateStartingQuality(@NonNull Bitmap bitmap,
+                                             @NonNull CompressFormat format,
+                                             int maxImageSize,
+                                             @NonNull ByteArrayOutputStream buffer)
+  {
+    if (format != CompressFormat.JPEG || bitmap.getWidth() * bitmap.getHeight() < MIN_TRIAL_ENCODE_PIXELS) {
+      return MAX_COMPRESSION_QUALITY;
+    }
+
+    Bitmap trial = Bitmap.createScaledBitmap(bitmap, bitmap.getWidth() / 2, bitmap.getHeight() / 2, true);
+
+    try {
+      buffer.reset();
+      trial.compress(format, MAX_COMPRESSION_QUALITY, buffer);
+    } finally {
+      if (trial != bitmap) trial.recycle();
+    }
+
+    long estimatedSize = buffer.size() * 4L;
+
+    Log.d(TAG, "Trial encode " + buffer.size() + " bytes, estimated full size " + estimatedSize + " bytes.");
+
+    if (estimatedSize <= maxImageSize * 2L) {
+      return MAX_COMPRESSION_QUALITY;
+    }
+
+    return Math.max(getNextQuality(MAX_COMPRESSION_QUALITY, estimatedSize, maxImageSize),
+                    MAX_COMPRESSION_QUALITY - MAX_ESTIMATED_QUALITY_DROP);
+  }
+
+  private static int getNextQuality(int quality, long size, int maxImageSize) {
+    int nextQuality = (int)Math.floor(quality * Math.sqrt((double)maxImageSize / size));
+    if (quality - nextQuality < MIN_COMPRESSION_QUALITY_DECREASE) {
+      nextQuality = quality - MIN_COMPRESSION_QUALITY_DECREASE;
     }
+    return Math.max(nextQuality, MIN_COMPRESSION_QUALITY);
   }
 
   @WorkerThread
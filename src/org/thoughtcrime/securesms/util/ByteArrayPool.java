@@ -0,0 +1,36 @@
+package org.thoughtcrime.securesms.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+
+/**
+ * A small pool of fixed-size byte arrays, used to avoid allocating a large I/O buffer every time
+ * a stream is opened.
+ *
+ * Buffers are handed out as-is, so callers should not rely on their contents and should only pool
+ * buffers that never hold plaintext.
+ */
+public final class ByteArrayPool {
+
+  private final int                bufferSize;
+  private final int                maxPooled;
+  private final ArrayDeque<byte[]> pool;
+
+  public ByteArrayPool(int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled  = maxPooled;
+    this.pool       = new ArrayDeque<>(maxPooled);
+  }
+
+  public synchronized @NonNull byte[] acquire() {
+    byte[] buffer = pool.poll();
+    return buffer != null ? buffer : new byte[bufferSize];
+  }
+
+  public synchronized void release(@NonNull byte[] buffer) {
+    if (buffer.length == bufferSize && pool.size() < maxPooled) {
+      pool.push(buffer);
+    }
+  }
+}
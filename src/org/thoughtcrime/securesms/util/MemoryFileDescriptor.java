@@ -43,6 +43,7 @@ public final class MemoryFileDescriptor implements Closeable {
           ParcelFileDescriptor.adoptFd(fileDescriptor).close();
         }
       } catch (IOException e) {
+        supported = false;
         Log.w(TAG, e);
       }
     }
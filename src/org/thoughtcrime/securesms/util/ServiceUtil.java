@@ -12,6 +12,7 @@ import android.media.AudioManager;
 import android.net.ConnectivityManager;
 import android.os.Build;
 import android.os.PowerManager;
+import android.os.storage.StorageManager;
 import android.os.Vibrator;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -86,4 +87,8 @@ public class ServiceUtil {
   public static LocationManager getLocationManager(@NonNull Context context) {
     return ContextCompat.getSystemService(context, LocationManager.class);
   }
+
+  public static StorageManager getStorageManager(@NonNull Context context) {
+    return ContextCompat.getSystemService(context, StorageManager.class);
+  }
 }
@@ -33,6 +33,14 @@ public class TextSecurePreferences {
 
   private static final String TAG = TextSecurePreferences.class.getSimpleName();
 
+  /**
+   * In-memory copies of values that are read on hot paths (e.g. every recipient resolve). These
+   * prefs are only ever written through their setters here, which keep the copies up to date.
+   */
+  private static volatile String  localNumber;
+  private static volatile UUID    localUuid;
+  private static volatile Boolean multiDevice;
+
   public  static final String IDENTITY_PREF                    = "pref_choose_identity";
   public  static final String CHANGE_PASSPHRASE_PREF           = "pref_change_passphrase";
   public  static final String DISABLE_PASSPHRASE_PREF          = "pref_disable_passphrase";
@@ -461,10 +469,18 @@ public class TextSecurePreferences {
 
   public static void setMultiDevice(Context context, boolean value) {
     setBooleanPreference(context, MULTI_DEVICE_PROVISIONED_PREF, value);
+    multiDevice = value;
   }
 
   public static boolean isMultiDevice(Context context) {
-    return getBooleanPreference(context, MULTI_DEVICE_PROVISIONED_PREF, false);
+    Boolean cached = multiDevice;
+
+    if (cached == null) {
+      cached      = getBooleanPreference(context, MULTI_DEVICE_PROVISIONED_PREF, false);
+      multiDevice = cached;
+    }
+
+    return cached;
   }
 
   public static void setSignedPreKeyFailureCount(Context context, int value) {
@@ -668,19 +684,35 @@ public class TextSecurePreferences {
   }
 
   public static String getLocalNumber(Context context) {
-    return getStringPreference(context, LOCAL_NUMBER_PREF, null);
+    String cached = localNumber;
+
+    if (cached == null) {
+      cached      = getStringPreference(context, LOCAL_NUMBER_PREF, null);
+      localNumber = cached;
+    }
+
+    return cached;
   }
 
   public static void setLocalNumber(Context context, String localNumber) {
     setStringPreference(context, LOCAL_NUMBER_PREF, localNumber);
+    TextSecurePreferences.localNumber = localNumber;
   }
 
   public static UUID getLocalUuid(Context context) {
-    return UuidUtil.parseOrNull(getStringPreference(context, LOCAL_UUID_PREF, null));
+    UUID cached = localUuid;
+
+    if (cached == null) {
+      cached    = UuidUtil.parseOrNull(getStringPreference(context, LOCAL_UUID_PREF, null));
+      localUuid = cached;
+    }
+
+    return cached;
   }
 
   public static void setLocalUuid(Context context, UUID uuid) {
     setStringPreference(context, LOCAL_UUID_PREF, uuid.toString());
+    localUuid = uuid;
   }
 
   public static String getPushServerPassword(Context context) {
@@ -22,6 +22,15 @@ public class SignalExecutors {
     return executor;
   }
 
+  /**
+   * A fixed-size pool whose threads time out when idle, for work that runs in bursts.
+   */
+  public static ExecutorService newCachedBoundedExecutor(final String name, int maxThreads) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 15, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NumberedThreadFactory(name));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private static class NumberedThreadFactory implements ThreadFactory {
 
     private final String        baseName;
@@ -0,0 +1,248 @@
+package org.thoughtcrime.securesms.video;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.ParcelFileDescriptor;
+import android.os.ProxyFileDescriptorCallback;
+import android.system.ErrnoException;
+import android.system.OsConstants;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+import org.thoughtcrime.securesms.crypto.AttachmentSecret;
+import org.thoughtcrime.securesms.crypto.AttachmentSecretProvider;
+import org.thoughtcrime.securesms.crypto.ModernDecryptingPartReader;
+import org.thoughtcrime.securesms.logging.Log;
+import org.thoughtcrime.securesms.util.Conversions;
+import org.thoughtcrime.securesms.util.ServiceUtil;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A temporary file on disk that the transcoder can mux into when the output should not be held in
+ * a {@link org.thoughtcrime.securesms.util.MemoryFileDescriptor}.
+ *
+ * The muxer is handed a proxy file descriptor, so every write, including the seeks back to patch
+ * headers once encoding finishes, is encrypted with AES-CTR at its offset before it reaches the
+ * disk. The file uses the same format as attachment parts and is read back with a
+ * {@link ModernDecryptingPartReader}.
+ */
+@RequiresApi(26)
+final class EncryptedTranscodeFile implements Closeable {
+
+  private static final String TAG = Log.tag(EncryptedTranscodeFile.class);
+
+  private static final String DIRECTORY  = "transcode";
+  private static final int    BLOCK_SIZE = 16;
+
+  private static boolean staleFilesDeleted;
+
+  private final AttachmentSecret     attachmentSecret;
+  private final File                 file;
+  private final byte[]               random;
+  private final RandomAccessFile     randomAccessFile;
+  private final SecretKeySpec        key;
+  private final Cipher               cipher;
+  private final byte[]               iv;
+  private final byte[]               skipBuffer;
+  private final HandlerThread        handlerThread;
+  private final ParcelFileDescriptor parcelFileDescriptor;
+
+  private byte[] writeBuffer = new byte[0];
+
+  static @NonNull EncryptedTranscodeFile create(@NonNull Context context) throws IOException {
+    File directory = new File(context.getCacheDir(), DIRECTORY);
+
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Unable to create transcode directory.");
+    }
+
+    deleteStaleFiles(directory);
+
+    return new EncryptedTranscodeFile(context, File.createTempFile("transcode", ".mp4", directory));
+  }
+
+  /**
+   * Files are only deleted when closed, so any left in the directory before the first file of this
+   * process is created belong to a transcode that was killed part way through.
+   */
+  private static synchronized void deleteStaleFiles(@NonNull File directory) {
+    if (staleFilesDeleted) return;
+
+    File[] files = directory.listFiles();
+
+    if (files != null) {
+      for (File file : files) {
+        if (!file.delete()) {
+          Log.w(TAG, "Failed to delete stale transcode file.");
+        }
+      }
+    }
+
+    staleFilesDeleted = true;
+  }
+
+  private EncryptedTranscodeFile(@NonNull Context context, @NonNull File file) throws IOException {
+    this.attachmentSecret = AttachmentSecretProvider.getInstance(context).getOrCreateAttachmentSecret();
+    this.file             = file;
+    this.random           = new byte[32];
+    this.randomAccessFile = new RandomAccessFile(file, "rw");
+    this.iv               = new byte[BLOCK_SIZE];
+    this.skipBuffer       = new byte[BLOCK_SIZE];
+
+    new SecureRandom().nextBytes(random);
+
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(new SecretKeySpec(attachmentSecret.getModernKey(), "HmacSHA256"));
+
+      this.key    = new SecretKeySpec(mac.doFinal(random), "AES");
+      this.cipher = Cipher.getInstance("AES/CTR/NoPadding");
+    } catch (NoSuchAlgorithmException | InvalidKeyException | NoSuchPaddingException e) {
+      throw new AssertionError(e);
+    }
+
+    this.handlerThread = new HandlerThread("EncryptedTranscodeFile");
+    this.handlerThread.start();
+
+    try {
+      this.parcelFileDescriptor = ServiceUtil.getStorageManager(context)
+                                             .openProxyFileDescriptor(ParcelFileDescriptor.MODE_READ_WRITE,
+                                                                      new Callback(),
+                                                                      new Handler(handlerThread.getLooper()));
+    } catch (IOException e) {
+      handlerThread.quitSafely();
+      randomAccessFile.close();
+      delete();
+      throw e;
+    }
+  }
+
+  @NonNull FileDescriptor getFileDescriptor() {
+    return parcelFileDescriptor.getFileDescriptor();
+  }
+
+  long size() {
+    return file.length();
+  }
+
+  /**
+   * @return A stream over the plaintext. The file is still deleted when this is closed, so the
+   *         stream must be consumed first.
+   */
+  @NonNull InputStream createInputStream() throws IOException {
+    return ModernDecryptingPartReader.createFor(attachmentSecret, random, file).asInputStream(0);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      parcelFileDescriptor.close();
+    } finally {
+      handlerThread.quitSafely();
+      randomAccessFile.close();
+      delete();
+    }
+  }
+
+  private void delete() {
+    if (!file.delete()) {
+      Log.w(TAG, "Failed to delete transcode file.");
+    }
+  }
+
+  /**
+   * CTR is symmetric, so the same transform encrypts writes and decrypts reads.
+   */
+  private void crypt(long position, @NonNull byte[] input, @NonNull byte[] output, int length) throws GeneralSecurityException {
+    int remainder = (int) (position % BLOCK_SIZE);
+
+    Conversions.longTo4ByteArray(iv, 12, position / BLOCK_SIZE);
+    cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+
+    if (remainder > 0) {
+      cipher.update(skipBuffer, 0, remainder, skipBuffer, 0);
+    }
+
+    cipher.update(input, 0, length, output, 0);
+  }
+
+  /**
+   * All callbacks arrive on {@link #handlerThread}, so the cipher and buffers are never shared.
+   */
+  private final class Callback extends ProxyFileDescriptorCallback {
+
+    @Override
+    public long onGetSize() throws ErrnoException {
+      try {
+        return randomAccessFile.length();
+      } catch (IOException e) {
+        throw new ErrnoException("onGetSize", OsConstants.EIO, e);
+      }
+    }
+
+    @Override
+    public int onRead(long offset, int size, byte[] data) throws ErrnoException {
+      try {
+        int read = 0;
+
+        randomAccessFile.seek(offset);
+
+        while (read < size) {
+          int count = randomAccessFile.read(data, read, size - read);
+          if (count == -1) break;
+          read += count;
+        }
+
+        crypt(offset, data, data, read);
+
+        return read;
+      } catch (IOException | GeneralSecurityException e) {
+        throw new ErrnoException("onRead", OsConstants.EIO, e);
+      }
+    }
+
+    @Override
+    public int onWrite(long offset, int size, byte[] data) throws ErrnoException {
+      try {
+        if (writeBuffer.length < size) {
+          writeBuffer = new byte[size];
+        }
+
+        crypt(offset, data, writeBuffer, size);
+
+        randomAccessFile.seek(offset);
+        randomAccessFile.write(writeBuffer, 0, size);
+
+        return size;
+      } catch (IOException | GeneralSecurityException e) {
+        throw new ErrnoException("onWrite", OsConstants.EIO, e);
+      }
+    }
+
+    @Override
+    public void onFsync() {
+    }
+
+    @Override
+    public void onRelease() {
+    }
+  }
+}
@@ -13,6 +13,8 @@ import com.google.android.exoplayer2.util.MimeTypes;
 import org.thoughtcrime.securesms.logging.Log;
 import org.thoughtcrime.securesms.mms.MediaStream;
 import org.thoughtcrime.securesms.util.MemoryFileDescriptor;
+import org.thoughtcrime.securesms.util.MemoryFileDescriptor.MemoryFileException;
+import org.thoughtcrime.securesms.util.Util;
 import org.thoughtcrime.securesms.video.videoconverter.EncodingException;
 import org.thoughtcrime.securesms.video.videoconverter.MediaConverter;
 
@@ -20,9 +22,15 @@ import java.io.Closeable;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.NumberFormat;
 import java.util.Locale;
 
+/**
+ * Transcodes into a {@link MemoryFileDescriptor} where there is room for the whole output in RAM,
+ * and otherwise into an {@link EncryptedTranscodeFile} on disk, so memory use stays bounded on
+ * low memory devices and for long videos.
+ */
 @RequiresApi(26)
 public final class InMemoryTranscoder implements Closeable {
 
@@ -47,7 +55,8 @@ public final class InMemoryTranscoder implements Closeable {
   private final long            fileSizeEstimate;
   private final int             outputFormat;
 
-  private @Nullable MemoryFileDescriptor memoryFile;
+  private @Nullable MemoryFileDescriptor   memoryFile;
+  private @Nullable EncryptedTranscodeFile encryptedFile;
 
   /**
    * @param upperSizeLimit A upper size to transcode to. The actual output size can be up to 10% smaller.
@@ -85,7 +94,7 @@ public final class InMemoryTranscoder implements Closeable {
   }
 
   public @NonNull MediaStream transcode(@NonNull Progress progress) throws IOException, EncodingException, VideoSizeException {
-    if (memoryFile != null) throw new AssertionError("Not expecting to reuse transcoder");
+    if (memoryFile != null || encryptedFile != null) throw new AssertionError("Not expecting to reuse transcoder");
 
     float durationSec = duration / 1000f;
 
@@ -114,17 +123,14 @@ public final class InMemoryTranscoder implements Closeable {
       throw new VideoSizeException("Size constraints could not be met!");
     }
 
-    memoryFile = MemoryFileDescriptor.newMemoryFileDescriptor(context,
-                                                              "TRANSCODE",
-                                                              memoryFileEstimate);
-    final long startTime = System.currentTimeMillis();
+    final FileDescriptor outputFileDescriptor = createOutput();
 
-    final FileDescriptor memoryFileFileDescriptor = memoryFile.getFileDescriptor();
+    final long startTime = System.currentTimeMillis();
 
     final MediaConverter converter = new MediaConverter();
 
     converter.setInput(dataSource);
-    converter.setOutput(memoryFileFileDescriptor);
+    converter.setOutput(outputFileDescriptor);
     converter.setVideoResolution(outputFormat);
     converter.setVideoBitrate(targetVideoBitRate);
     converter.setAudioBitrate(AUDIO_BITRATE);
@@ -137,7 +143,7 @@ public final class InMemoryTranscoder implements Closeable {
     converter.convert();
 
     // output details of the transcoding
-    long  outSize           = memoryFile.size();
+    long  outSize           = memoryFile != null ? memoryFile.size() : encryptedFile.size();
     float encodeDurationSec = (System.currentTimeMillis() - startTime) / 1000f;
 
     Log.i(TAG, String.format(Locale.US,
@@ -160,9 +166,32 @@ public final class InMemoryTranscoder implements Closeable {
       throw new VideoSizeException("Size constraints could not be met!");
     }
 
-    memoryFile.seek(0);
+    InputStream output;
+
+    if (memoryFile != null) {
+      memoryFile.seek(0);
+      output = new FileInputStream(outputFileDescriptor);
+    } else {
+      output = encryptedFile.createInputStream();
+    }
+
+    return new MediaStream(output, MimeTypes.VIDEO_MP4, 0, 0);
+  }
+
+  private @NonNull FileDescriptor createOutput() throws IOException {
+    if (MemoryFileDescriptor.supported() && !Util.isLowMemory(context)) {
+      try {
+        memoryFile = MemoryFileDescriptor.newMemoryFileDescriptor(context,
+                                                                  "TRANSCODE",
+                                                                  memoryFileEstimate);
+        return memoryFile.getFileDescriptor();
+      } catch (MemoryFileException e) {
+        Log.w(TAG, "Unable to transcode in memory, using an encrypted file instead.", e);
+      }
+    }
 
-    return new MediaStream(new FileInputStream(memoryFileFileDescriptor), MimeTypes.VIDEO_MP4, 0, 0);
+    encryptedFile = EncryptedTranscodeFile.create(context);
+    return encryptedFile.getFileDescriptor();
   }
 
   public boolean isTranscodeRequired() {
@@ -174,6 +203,10 @@ public final class InMemoryTranscoder implements Closeable {
     if (memoryFile != null) {
       memoryFile.close();
     }
+
+    if (encryptedFile != null) {
+      encryptedFile.close();
+    }
   }
 
   private static int bitRate(long bytes, long duration) {
@@ -7,11 +7,11 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 
 import org.thoughtcrime.securesms.crypto.AttachmentSecret;
-import org.thoughtcrime.securesms.crypto.ModernDecryptingPartInputStream;
+import org.thoughtcrime.securesms.crypto.ModernDecryptingPartReader;
+import org.thoughtcrime.securesms.logging.Log;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * Create via {@link EncryptedMediaDataSource}.
@@ -20,15 +20,22 @@ import java.io.InputStream;
  * <p>
  * It is "modern" compared to the {@link ClassicEncryptedMediaDataSource}. And "modern" refers to
  * the presence of a random part of the key supplied in the constructor.
+ * <p>
+ * A single {@link ModernDecryptingPartReader} is kept open for the lifetime of the data source,
+ * so seeking does not reopen the file or rederive the key.
  */
 @RequiresApi(23)
 final class ModernEncryptedMediaDataSource extends MediaDataSource {
 
+  private static final String TAG = ModernEncryptedMediaDataSource.class.getSimpleName();
+
   private final AttachmentSecret attachmentSecret;
   private final File             mediaFile;
   private final byte[]           random;
   private final long             length;
 
+  private ModernDecryptingPartReader reader;
+
   ModernEncryptedMediaDataSource(@NonNull AttachmentSecret attachmentSecret, @NonNull File mediaFile, @Nullable byte[] random, long length) {
     this.attachmentSecret = attachmentSecret;
     this.mediaFile        = mediaFile;
@@ -38,27 +45,26 @@ final class ModernEncryptedMediaDataSource extends MediaDataSource {
 
   @Override
   public int readAt(long position, byte[] bytes, int offset, int length) throws IOException {
-    try (InputStream inputStream = createInputStream(position)) {
-      int totalRead = 0;
-
-      while (length > 0) {
-        int read = inputStream.read(bytes, offset, length);
-
-        if (read == -1) {
-          if (totalRead == 0) {
-            return -1;
-          } else {
-            return totalRead;
-          }
-        }
+    ModernDecryptingPartReader partReader = getReader();
+    int                        totalRead  = 0;
+
+    while (length > 0) {
+      int read = partReader.read(position + totalRead, bytes, offset, length);
 
-        length    -= read;
-        offset    += read;
-        totalRead += read;
+      if (read == -1) {
+        if (totalRead == 0) {
+          return -1;
+        } else {
+          return totalRead;
+        }
       }
 
-      return totalRead;
+      length    -= read;
+      offset    += read;
+      totalRead += read;
     }
+
+    return totalRead;
   }
 
   @Override
@@ -67,14 +73,26 @@ final class ModernEncryptedMediaDataSource extends MediaDataSource {
   }
 
   @Override
-  public void close() {
+  public synchronized void close() {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        Log.w(TAG, e);
+      }
+      reader = null;
+    }
   }
 
-  private InputStream createInputStream(long position) throws IOException {
-    if (random == null) {
-      return ModernDecryptingPartInputStream.createFor(attachmentSecret, mediaFile, position);
-    } else {
-      return ModernDecryptingPartInputStream.createFor(attachmentSecret, random, mediaFile, position);
+  private synchronized ModernDecryptingPartReader getReader() throws IOException {
+    if (reader == null) {
+      if (random == null) {
+        reader = ModernDecryptingPartReader.createFor(attachmentSecret, mediaFile);
+      } else {
+        reader = ModernDecryptingPartReader.createFor(attachmentSecret, random, mediaFile);
+      }
     }
+
+    return reader;
   }
 }
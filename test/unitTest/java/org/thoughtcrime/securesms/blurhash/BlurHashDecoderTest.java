@@ -0,0 +1,122 @@
+package org.thoughtcrime.securesms.blurhash;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.thoughtcrime.securesms.blurhash.BlurHashUtil.linearTosRGB;
+import static org.thoughtcrime.securesms.blurhash.BlurHashUtil.sRGBToLinear;
+import static org.thoughtcrime.securesms.blurhash.BlurHashUtil.signPow;
+
+public class BlurHashDecoderTest {
+
+  private static final String[] HASHES = { "LEHV6nWB2yk8pyo0adR*.7kCMdnj",
+                                           "LGF5]+Yk^6#M@-5c,1J5@[or[Q6.",
+                                           "L6PZfSi_.AyE_3t7t7R**0o#DgR4",
+                                           "LKO2?U%2Tw=w]~RBVZRi};RPxuwH",
+                                           "00TI:j" };
+
+  private static final int[][] SIZES = { { 1, 1 }, { 20, 15 }, { 15, 20 }, { 32, 32 }, { 64, 64 }, { 7, 33 } };
+
+  @Test
+  public void decodePixels_knownHashes_matchReference() {
+    for (String hash : HASHES) {
+      for (int[] size : SIZES) {
+        assertArrayEquals(hash, referenceDecode(hash, size[0], size[1], 1f), BlurHashDecoder.decodePixels(hash, size[0], size[1], 1f));
+      }
+    }
+  }
+
+  @Test
+  public void decodePixels_randomHashes_matchReference() {
+    Random random = new Random(1337);
+
+    for (int n = 0; n < 500; n++) {
+      String hash   = randomHash(random);
+      int    width  = random.nextInt(40) + 1;
+      int    height = random.nextInt(40) + 1;
+      double punch  = random.nextBoolean() ? 1f : random.nextDouble() * 3;
+
+      assertArrayEquals(hash, referenceDecode(hash, width, height, punch), BlurHashDecoder.decodePixels(hash, width, height, punch));
+    }
+  }
+
+  @Test
+  public void decodePixels_invalidLength_returnsNull() {
+    assertNull(BlurHashDecoder.decodePixels(null, 10, 10, 1f));
+    assertNull(BlurHashDecoder.decodePixels("LEHV6", 10, 10, 1f));
+    assertNull(BlurHashDecoder.decodePixels("LEHV6nWB2yk8pyo0adR*.7kCMdn", 10, 10, 1f));
+  }
+
+  private static String randomHash(Random random) {
+    int    numCompX = random.nextInt(9) + 1;
+    int    numCompY = random.nextInt(9) + 1;
+    char[] hash     = new char[4 + 2 * numCompX * numCompY];
+
+    Base83.encode((numCompX - 1) + (numCompY - 1) * 9, 1, hash, 0);
+    Base83.encode(random.nextInt(83), 1, hash, 1);
+    Base83.encode(random.nextInt(1 << 24), 4, hash, 2);
+
+    for (int i = 1; i < numCompX * numCompY; i++) {
+      Base83.encode(random.nextInt(19 * 19 * 19), 2, hash, 4 + i * 2);
+    }
+
+    return new String(hash);
+  }
+
+  /**
+   * The original per-pixel implementation, kept to check the table-driven decoder against.
+   */
+  private static int[] referenceDecode(String blurHash, int width, int height, double punch) {
+    int numCompEnc = Base83.decode(blurHash, 0, 1);
+    int numCompX   = (numCompEnc % 9) + 1;
+    int numCompY   = (numCompEnc / 9) + 1;
+
+    int        maxAcEnc = Base83.decode(blurHash, 1, 2);
+    double     maxAc    = (maxAcEnc + 1) / 166f;
+    double[][] colors   = new double[numCompX * numCompY][];
+
+    for (int i = 0; i < colors.length; i++) {
+      if (i == 0) {
+        int colorEnc = Base83.decode(blurHash, 2, 6);
+        colors[i] = new double[] { sRGBToLinear(colorEnc >> 16), sRGBToLinear((colorEnc >> 8) & 255), sRGBToLinear(colorEnc & 255) };
+      } else {
+        int from     = 4 + i * 2;
+        int colorEnc = Base83.decode(blurHash, from, from + 2);
+        int r        = colorEnc / (19 * 19);
+        int g        = (colorEnc / 19) % 19;
+        int b        = colorEnc % 19;
+
+        colors[i] = new double[] { signPow((r - 9) / 9.0f, 2f) * (maxAc * punch),
+                                   signPow((g - 9) / 9.0f, 2f) * (maxAc * punch),
+                                   signPow((b - 9) / 9.0f, 2f) * (maxAc * punch) };
+      }
+    }
+
+    int[] pixels = new int[width * height];
+
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        double r = 0f;
+        double g = 0f;
+        double b = 0f;
+
+        for (int j = 0; j < numCompY; j++) {
+          for (int i = 0; i < numCompX; i++) {
+            double   basis = (Math.cos(Math.PI * x * i / width) * Math.cos(Math.PI * y * j / height));
+            double[] color = colors[j * numCompX + i];
+            r += color[0] * basis;
+            g += color[1] * basis;
+            b += color[2] * basis;
+          }
+        }
+
+        pixels[y * width + x] = 0xFF000000 | ((int) linearTosRGB(r) << 16) | ((int) linearTosRGB(g) << 8) | (int) linearTosRGB(b);
+      }
+    }
+
+    return pixels;
+  }
+}
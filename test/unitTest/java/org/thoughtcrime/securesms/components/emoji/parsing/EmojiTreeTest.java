@@ -0,0 +1,180 @@
+package org.thoughtcrime.securesms.components.emoji.parsing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class EmojiTreeTest {
+
+  private static final String MAN         = "\uD83D\uDC68";
+  private static final String WOMAN       = "\uD83D\uDC69";
+  private static final String GIRL        = "\uD83D\uDC67";
+  private static final String BOY         = "\uD83D\uDC66";
+  private static final String ZWJ         = "\u200D";
+  private static final String FAMILY      = MAN + ZWJ + WOMAN + ZWJ + GIRL;
+  private static final String HEART       = "\u2764\uFE0F";
+  private static final String FLAG_US     = "\uD83C\uDDFA\uD83C\uDDF8";
+  private static final String FLAG_UA     = "\uD83C\uDDFA\uD83C\uDDE6";
+  private static final String THUMBS_UP   = "\uD83D\uDC4D";
+  private static final String SKIN_TONE_1 = "\uD83C\uDFFB";
+
+  private EmojiTree     tree;
+  private EmojiDrawInfo man;
+  private EmojiDrawInfo woman;
+  private EmojiDrawInfo family;
+  private EmojiDrawInfo heart;
+  private EmojiDrawInfo flagUs;
+  private EmojiDrawInfo flagUa;
+  private EmojiDrawInfo thumbsUp;
+
+  @Before
+  public void setUp() {
+    EmojiPageBitmap page = mock(EmojiPageBitmap.class);
+
+    tree     = new EmojiTree();
+    man      = new EmojiDrawInfo(page, 0);
+    woman    = new EmojiDrawInfo(page, 1);
+    family   = new EmojiDrawInfo(page, 2);
+    heart    = new EmojiDrawInfo(page, 3);
+    flagUs   = new EmojiDrawInfo(page, 4);
+    flagUa   = new EmojiDrawInfo(page, 5);
+    thumbsUp = new EmojiDrawInfo(page, 6);
+
+    tree.add(FAMILY, family);
+    tree.add(WOMAN, woman);
+    tree.add(MAN, man);
+    tree.add(HEART, heart);
+    tree.add(FLAG_US, flagUs);
+    tree.add(FLAG_UA, flagUa);
+    tree.add(THUMBS_UP, thumbsUp);
+  }
+
+  @Test
+  public void getLongestMatchEnd_singleEmoji() {
+    assertEquals(2, tree.getLongestMatchEnd(THUMBS_UP, 0));
+    assertSame(thumbsUp, tree.getEmoji(THUMBS_UP, 0, 2));
+  }
+
+  @Test
+  public void getLongestMatchEnd_noMatch() {
+    assertEquals(-1, tree.getLongestMatchEnd("abc", 0));
+    assertEquals(-1, tree.getLongestMatchEnd(MAN, 1));
+    assertEquals(-1, tree.getLongestMatchEnd("", 0));
+  }
+
+  @Test
+  public void getLongestMatchEnd_multiCodepointSequence() {
+    assertEquals(FAMILY.length(), tree.getLongestMatchEnd(FAMILY, 0));
+    assertSame(family, tree.getEmoji(FAMILY, 0, FAMILY.length()));
+  }
+
+  @Test
+  public void getLongestMatchEnd_prefixOfLongerEmoji_matchesShortest() {
+    String text = MAN + ZWJ + WOMAN;
+
+    assertEquals(MAN.length(), tree.getLongestMatchEnd(text, 0));
+    assertSame(man, tree.getEmoji(text, 0, MAN.length()));
+  }
+
+  @Test
+  public void getLongestMatchEnd_unknownSequenceSharingPrefix_fallsBackToPrefix() {
+    String text = MAN + ZWJ + WOMAN + ZWJ + BOY;
+
+    assertEquals(MAN.length(), tree.getLongestMatchEnd(text, 0));
+  }
+
+  @Test
+  public void getLongestMatchEnd_overlappingSurrogatePrefixes() {
+    assertEquals(4, tree.getLongestMatchEnd(FLAG_US, 0));
+    assertEquals(4, tree.getLongestMatchEnd(FLAG_UA, 0));
+    assertSame(flagUs, tree.getEmoji(FLAG_US, 0, 4));
+    assertSame(flagUa, tree.getEmoji(FLAG_UA, 0, 4));
+    assertEquals(-1, tree.getLongestMatchEnd(FLAG_US.substring(0, 2), 0));
+  }
+
+  @Test
+  public void getLongestMatchEnd_fromMiddleOfText() {
+    String text = "hi " + FAMILY + "!";
+
+    assertEquals(3 + FAMILY.length(), tree.getLongestMatchEnd(text, 3));
+    assertEquals(-1, tree.getLongestMatchEnd(text, 0));
+  }
+
+  @Test
+  public void getLongestMatchEnd_withoutVariationSelector() {
+    String bare = HEART.substring(0, 1);
+
+    assertEquals(1, tree.getLongestMatchEnd(bare, 0));
+    assertEquals(2, tree.getLongestMatchEnd(HEART, 0));
+    assertSame(heart, tree.getEmoji(bare, 0, 1));
+    assertSame(heart, tree.getEmoji(HEART, 0, 2));
+  }
+
+  @Test
+  public void getEmoji_partialSequence_returnsNull() {
+    assertNull(tree.getEmoji(MAN + ZWJ, 0, 3));
+    assertNull(tree.getEmoji("abc", 0, 3));
+  }
+
+  @Test
+  public void add_outOfOrderKeys_allFound() {
+    EmojiPageBitmap page  = mock(EmojiPageBitmap.class);
+    EmojiTree       tree  = new EmojiTree();
+    EmojiDrawInfo[] infos = new EmojiDrawInfo[64];
+
+    for (int i = infos.length - 1; i >= 0; i -= 2) {
+      infos[i] = new EmojiDrawInfo(page, i);
+      tree.add(String.valueOf((char) (0x2600 + i)), infos[i]);
+    }
+
+    for (int i = 0; i < infos.length; i += 2) {
+      infos[i] = new EmojiDrawInfo(page, i);
+      tree.add(String.valueOf((char) (0x2600 + i)), infos[i]);
+    }
+
+    for (int i = 0; i < infos.length; i++) {
+      String emoji = String.valueOf((char) (0x2600 + i));
+
+      assertEquals(1, tree.getLongestMatchEnd(emoji, 0));
+      assertSame(infos[i], tree.getEmoji(emoji, 0, 1));
+    }
+  }
+
+  @Test
+  public void findCandidates_adjacentEmojiWithSkinTone() {
+    EmojiParser.CandidateList candidates = new EmojiParser(tree).findCandidates(FAMILY + THUMBS_UP + SKIN_TONE_1 + " " + MAN);
+
+    assertEquals(3, candidates.size());
+    assertTrue(candidates.allEmojis);
+
+    assertEquals(0, candidates.list.get(0).getStartIndex());
+    assertEquals(FAMILY.length(), candidates.list.get(0).getEndIndex());
+    assertSame(family, candidates.list.get(0).getDrawInfo());
+
+    assertEquals(FAMILY.length(), candidates.list.get(1).getStartIndex());
+    assertEquals(FAMILY.length() + 4, candidates.list.get(1).getEndIndex());
+    assertSame(thumbsUp, candidates.list.get(1).getDrawInfo());
+
+    assertSame(man, candidates.list.get(2).getDrawInfo());
+  }
+
+  @Test
+  public void findCandidates_mixedText_notAllEmojis() {
+    EmojiParser.CandidateList candidates = new EmojiParser(tree).findCandidates("a" + WOMAN);
+
+    assertEquals(1, candidates.size());
+    assertFalse(candidates.allEmojis);
+    assertSame(woman, candidates.list.get(0).getDrawInfo());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void findCandidates_listIsImmutable() {
+    new EmojiParser(tree).findCandidates(MAN).list.clear();
+  }
+}
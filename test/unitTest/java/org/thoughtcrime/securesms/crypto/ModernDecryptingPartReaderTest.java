@@ -0,0 +1,157 @@
+package org.thoughtcrime.securesms.crypto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.thoughtcrime.securesms.util.ByteArrayPool;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ModernDecryptingPartReaderTest {
+
+  private final Random random = new Random(42);
+
+  private AttachmentSecret attachmentSecret;
+  private byte[]           partRandom;
+  private byte[]           plaintext;
+  private File             file;
+  private File             inlineFile;
+
+  @Before
+  public void setUp() throws Exception {
+    byte[] modernKey = new byte[32];
+    random.nextBytes(modernKey);
+
+    attachmentSecret = new AttachmentSecret(null, null, modernKey);
+    partRandom       = new byte[32];
+    plaintext        = new byte[100_003];
+
+    random.nextBytes(partRandom);
+    random.nextBytes(plaintext);
+
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(modernKey, "HmacSHA256"));
+
+    Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(mac.doFinal(partRandom), "AES"), new IvParameterSpec(new byte[16]));
+
+    byte[] ciphertext = cipher.doFinal(plaintext);
+
+    file       = File.createTempFile("part", ".mms");
+    inlineFile = File.createTempFile("blob", ".blob");
+
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(ciphertext);
+    }
+
+    try (FileOutputStream out = new FileOutputStream(inlineFile)) {
+      out.write(partRandom);
+      out.write(ciphertext);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+    inlineFile.delete();
+  }
+
+  @Test
+  public void read_randomPositions_matchesPlaintext() throws IOException {
+    try (ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, partRandom, file)) {
+      assertEquals(plaintext.length, reader.getSize());
+      assertRandomReads(reader);
+    }
+  }
+
+  @Test
+  public void read_inlineHeader_matchesPlaintext() throws IOException {
+    try (ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, inlineFile)) {
+      assertEquals(plaintext.length, reader.getSize());
+      assertRandomReads(reader);
+    }
+  }
+
+  @Test
+  public void read_smallPooledBuffers_matchesPlaintext() throws IOException {
+    ByteArrayPool pool = new ByteArrayPool(1000, 1);
+
+    try (ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, partRandom, file, pool)) {
+      assertRandomReads(reader);
+    }
+
+    try (ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, inlineFile, pool)) {
+      assertRandomReads(reader);
+    }
+  }
+
+  @Test
+  public void read_matchesStreamAtOffset() throws IOException {
+    long   offset   = 12_345;
+    byte[] expected = new byte[1000];
+    byte[] actual   = new byte[1000];
+
+    try (InputStream in = ModernDecryptingPartInputStream.createFor(attachmentSecret, partRandom, file, offset)) {
+      int read = 0;
+      while (read < expected.length) read += in.read(expected, read, expected.length - read);
+    }
+
+    try (ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, partRandom, file)) {
+      assertEquals(actual.length, reader.read(offset, actual, 0, actual.length));
+    }
+
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void read_pastEnd_returnsEndOfStream() throws IOException {
+    try (ModernDecryptingPartReader reader = ModernDecryptingPartReader.createFor(attachmentSecret, partRandom, file)) {
+      assertEquals(-1, reader.read(plaintext.length, new byte[10], 0, 10));
+      assertEquals(3, reader.read(plaintext.length - 3, new byte[10], 0, 10));
+    }
+  }
+
+  @Test
+  public void asInputStream_readsRemainingPlaintext() throws IOException {
+    long   offset = 17;
+    byte[] actual = new byte[plaintext.length - (int) offset];
+
+    try (InputStream in = ModernDecryptingPartReader.createFor(attachmentSecret, partRandom, file).asInputStream(offset)) {
+      int read = 0;
+      int count;
+
+      while ((count = in.read(actual, read, Math.min(8192, actual.length - read))) > 0) {
+        read += count;
+      }
+
+      assertEquals(actual.length, read);
+      assertEquals(-1, in.read());
+    }
+
+    assertArrayEquals(Arrays.copyOfRange(plaintext, (int) offset, plaintext.length), actual);
+  }
+
+  private void assertRandomReads(ModernDecryptingPartReader reader) throws IOException {
+    for (int i = 0; i < 200; i++) {
+      int    position = random.nextInt(plaintext.length);
+      int    length   = Math.min(1 + random.nextInt(70_000), plaintext.length - position);
+      byte[] buffer   = new byte[length];
+
+      assertEquals(length, reader.read(position, buffer, 0, length));
+      assertArrayEquals(Arrays.copyOfRange(plaintext, position, position + length), buffer);
+    }
+  }
+}
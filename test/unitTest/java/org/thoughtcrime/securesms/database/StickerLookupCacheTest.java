@@ -0,0 +1,107 @@
+package org.thoughtcrime.securesms.database;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thoughtcrime.securesms.database.model.StickerRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class StickerLookupCacheTest {
+
+  private static final StickerRecord SMILE       = sticker(1, "😀");
+  private static final StickerRecord HEART       = sticker(2, "❤️");
+  private static final StickerRecord SMILE_HEART = sticker(3, "😀❤️");
+  private static final StickerRecord SMILE_AGAIN = sticker(4, "😀");
+
+  private StickerLookupCache cache;
+  private FakeLoader         loader;
+
+  @Before
+  public void setUp() {
+    cache  = new StickerLookupCache();
+    loader = new FakeLoader(Arrays.asList(SMILE, HEART, SMILE_HEART, SMILE_AGAIN), Arrays.asList(HEART, SMILE));
+  }
+
+  @Test
+  public void getStickersByEmoji_matchesContainedEmojiInRowOrder() {
+    assertEquals(Arrays.asList(SMILE, SMILE_HEART, SMILE_AGAIN), cache.getStickersByEmoji("😀", loader));
+    assertEquals(Arrays.asList(HEART, SMILE_HEART), cache.getStickersByEmoji("❤️", loader));
+    assertEquals(0, cache.getStickersByEmoji("🐶", loader).size());
+  }
+
+  @Test
+  public void getStickersByEmoji_loadsOnceUntilInvalidated() {
+    cache.getStickersByEmoji("😀", loader);
+    cache.getStickersByEmoji("❤️", loader);
+    assertEquals(1, loader.stickerLoads);
+
+    cache.invalidate();
+    cache.getStickersByEmoji("😀", loader);
+    assertEquals(2, loader.stickerLoads);
+  }
+
+  @Test
+  public void getRecents_reloadsOnlyForLargerLimit() {
+    assertEquals(Arrays.asList(HEART), cache.getRecents(1, loader));
+    assertEquals(Arrays.asList(HEART), cache.getRecents(1, loader));
+    assertEquals(1, loader.recentLoads);
+
+    assertEquals(Arrays.asList(HEART, SMILE), cache.getRecents(24, loader));
+    assertEquals(Arrays.asList(HEART), cache.getRecents(1, loader));
+    assertEquals(2, loader.recentLoads);
+  }
+
+  @Test
+  public void onStickerUsed_knownSticker_movesToFrontWithoutReload() {
+    cache.getRecents(24, loader);
+    cache.onStickerUsed(SMILE.getRowId());
+
+    assertEquals(Arrays.asList(SMILE, HEART), cache.getRecents(24, loader));
+    assertEquals(1, loader.recentLoads);
+  }
+
+  @Test
+  public void onStickerUsed_unknownSticker_reloads() {
+    cache.getRecents(24, loader);
+    cache.onStickerUsed(SMILE_HEART.getRowId());
+    cache.getRecents(24, loader);
+
+    assertEquals(2, loader.recentLoads);
+  }
+
+  private static StickerRecord sticker(long rowId, @NonNull String emoji) {
+    return new StickerRecord(rowId, "pack", "key", (int) rowId, emoji, 100, false);
+  }
+
+  private static final class FakeLoader implements StickerLookupCache.Loader {
+
+    private final List<StickerRecord> stickers;
+    private final List<StickerRecord> recents;
+
+    private int stickerLoads;
+    private int recentLoads;
+
+    private FakeLoader(@NonNull List<StickerRecord> stickers, @NonNull List<StickerRecord> recents) {
+      this.stickers = stickers;
+      this.recents  = recents;
+    }
+
+    @Override
+    public @NonNull List<StickerRecord> loadStickers() {
+      stickerLoads++;
+      return stickers;
+    }
+
+    @Override
+    public @NonNull List<StickerRecord> loadRecents(int limit) {
+      recentLoads++;
+      return new ArrayList<>(recents.subList(0, Math.min(limit, recents.size())));
+    }
+  }
+}
@@ -2,6 +2,8 @@ package org.thoughtcrime.securesms.linkpreview;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -70,4 +72,103 @@ public class LinkPreviewUtilTest {
   public void isLegal_emptyUrl() {
     assertFalse(LinkPreviewUtil.isLegalUrl(""));
   }
+
+  @Test
+  public void parseOpenGraph_findsTitleAndImage() throws IOException {
+    PageReader                reader    = new PageReader(HEAD_WITH_IMAGE, 0);
+    LinkPreviewUtil.OpenGraph openGraph = LinkPreviewUtil.parseOpenGraph(reader, MAX_CHARS);
+
+    assertEquals("Title &amp; more", openGraph.getTitle().get());
+    assertEquals("https://example.com/image.jpg", openGraph.getImageUrl().get());
+  }
+
+  @Test
+  public void parseOpenGraph_multiMegabytePage_stopsOnceBothFound() throws IOException {
+    PageReader                reader    = new PageReader(HEAD_WITH_IMAGE, 8 * 1024 * 1024);
+    LinkPreviewUtil.OpenGraph openGraph = LinkPreviewUtil.parseOpenGraph(reader, MAX_CHARS);
+
+    assertTrue(openGraph.getImageUrl().isPresent());
+    assertTrue(reader.charsRead <= 8192);
+    assertEquals(reader.charsRead, openGraph.getCharsRead());
+  }
+
+  @Test
+  public void parseOpenGraph_multiMegabytePage_stopsAtEndOfHead() throws IOException {
+    PageReader                reader    = new PageReader(HEAD_WITHOUT_IMAGE, 8 * 1024 * 1024);
+    LinkPreviewUtil.OpenGraph openGraph = LinkPreviewUtil.parseOpenGraph(reader, MAX_CHARS);
+
+    assertEquals("Title", openGraph.getTitle().get());
+    assertFalse(openGraph.getImageUrl().isPresent());
+    assertTrue(reader.charsRead <= 8192);
+  }
+
+  @Test
+  public void parseOpenGraph_unterminatedHead_stopsAtCap() throws IOException {
+    PageReader                reader    = new PageReader("<html><head><script>", 8 * 1024 * 1024);
+    LinkPreviewUtil.OpenGraph openGraph = LinkPreviewUtil.parseOpenGraph(reader, MAX_CHARS);
+
+    assertFalse(openGraph.getTitle().isPresent());
+    assertEquals(MAX_CHARS, reader.charsRead);
+  }
+
+  @Test
+  public void parseOpenGraph_tagsSplitAcrossReads() throws IOException {
+    PageReader                reader    = new PageReader(HEAD_WITH_IMAGE, 1024, 7);
+    LinkPreviewUtil.OpenGraph openGraph = LinkPreviewUtil.parseOpenGraph(reader, MAX_CHARS);
+
+    assertEquals("Title &amp; more", openGraph.getTitle().get());
+    assertEquals("https://example.com/image.jpg", openGraph.getImageUrl().get());
+  }
+
+  private static final int MAX_CHARS = 512 * 1024;
+
+  private static final String HEAD_WITH_IMAGE = "<!DOCTYPE html><html><head>" +
+                                                "<meta property=\"og:title\" content=\"Title &amp; more\">" +
+                                                "<meta charset=\"utf-8\">" +
+                                                "<META PROPERTY=\"og:image\" CONTENT=\"https://example.com/image.jpg\" />";
+
+  private static final String HEAD_WITHOUT_IMAGE = "<html><head>" +
+                                                   "<meta property=\"og:title\" content=\"Title\">" +
+                                                   "</head><body>";
+
+  /**
+   * Stands in for a response body: the supplied prefix followed by filler, counting what is read.
+   */
+  private static final class PageReader extends Reader {
+
+    private final String prefix;
+    private final long   length;
+    private final int    maxPerRead;
+
+    private int charsRead;
+
+    PageReader(String prefix, long fillerLength) {
+      this(prefix, fillerLength, Integer.MAX_VALUE);
+    }
+
+    PageReader(String prefix, long fillerLength, int maxPerRead) {
+      this.prefix     = prefix;
+      this.length     = prefix.length() + fillerLength;
+      this.maxPerRead = maxPerRead;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int count) {
+      int toRead = (int) Math.min(Math.min(count, maxPerRead), length - charsRead);
+
+      if (toRead <= 0) return -1;
+
+      for (int i = 0; i < toRead; i++) {
+        int position = charsRead + i;
+        buffer[offset + i] = position < prefix.length() ? prefix.charAt(position) : 'x';
+      }
+
+      charsRead += toRead;
+      return toRead;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
 }
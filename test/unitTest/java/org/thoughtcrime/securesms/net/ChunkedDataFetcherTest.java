@@ -0,0 +1,56 @@
+package org.thoughtcrime.securesms.net;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ChunkedDataFetcherTest {
+
+  private static final int CHUNK_SIZE = 10 * 1024;
+
+  private final byte[] data = randomBytes(CHUNK_SIZE);
+
+  @Test
+  public void readChunk_completeChunk_returnsAllBytes() throws IOException {
+    assertArrayEquals(data, readFully(ChunkedDataFetcher.readChunk(new ByteArrayInputStream(data), CHUNK_SIZE)));
+  }
+
+  @Test(expected = IOException.class)
+  public void readChunk_chunkEndsEarly_throws() throws IOException {
+    ChunkedDataFetcher.readChunk(new ByteArrayInputStream(data, 0, CHUNK_SIZE - 1), CHUNK_SIZE);
+  }
+
+  @Test
+  public void openLiveChunk_completeChunk_returnsAllBytes() throws IOException {
+    assertArrayEquals(data, readFully(ChunkedDataFetcher.openLiveChunk(new ByteArrayInputStream(data), CHUNK_SIZE)));
+  }
+
+  @Test(expected = IOException.class)
+  public void openLiveChunk_chunkEndsEarly_throws() throws IOException {
+    readFully(ChunkedDataFetcher.openLiveChunk(new ByteArrayInputStream(data, 0, CHUNK_SIZE / 2), CHUNK_SIZE));
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    byte[] buffer = new byte[CHUNK_SIZE * 2];
+    int    total  = 0;
+    int    read;
+
+    while ((read = in.read(buffer, total, Math.min(1000, buffer.length - total))) != -1) {
+      total += read;
+    }
+
+    return Arrays.copyOf(buffer, total);
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(7).nextBytes(bytes);
+    return bytes;
+  }
+}
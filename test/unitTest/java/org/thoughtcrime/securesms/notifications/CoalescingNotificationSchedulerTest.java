@@ -0,0 +1,142 @@
+package org.thoughtcrime.securesms.notifications;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingNotificationSchedulerTest {
+
+  private static final long WINDOW = 200;
+
+  private FakeTimer                       timer;
+  private List<Boolean>                   updates;
+  private CoalescingNotificationScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    timer     = new FakeTimer();
+    updates   = new ArrayList<>();
+    scheduler = new CoalescingNotificationScheduler(timer, WINDOW, updates::add);
+  }
+
+  @Test
+  public void schedule_singleRequest_deliversImmediately() {
+    scheduler.schedule(true);
+    timer.advance(0);
+
+    assertEquals(1, updates.size());
+    assertTrue(updates.get(0));
+  }
+
+  @Test
+  public void schedule_burstOfRequests_coalescesAndKeepsSignal() {
+    scheduler.schedule(false);
+    timer.advance(0);
+
+    for (int i = 0; i < 1000; i++) {
+      scheduler.schedule(i == 500);
+    }
+
+    timer.advance(WINDOW - 1);
+    assertEquals(1, updates.size());
+
+    timer.advance(1);
+    assertEquals(2, updates.size());
+    assertFalse(updates.get(0));
+    assertTrue(updates.get(1));
+  }
+
+  @Test
+  public void schedule_silentBurst_staysSilent() {
+    for (int i = 0; i < 1000; i++) {
+      scheduler.schedule(false);
+    }
+
+    timer.advance(WINDOW * 2);
+
+    assertEquals(1, updates.size());
+    assertFalse(updates.get(0));
+  }
+
+  @Test
+  public void schedule_afterQuietPeriod_deliversImmediately() {
+    scheduler.schedule(false);
+    timer.advance(WINDOW * 5);
+
+    scheduler.schedule(true);
+    timer.advance(0);
+
+    assertEquals(2, updates.size());
+    assertTrue(updates.get(1));
+  }
+
+  @Test
+  public void schedule_signalIsNotCarriedIntoNextWindow() {
+    scheduler.schedule(true);
+    timer.advance(0);
+
+    scheduler.schedule(false);
+    timer.advance(WINDOW);
+
+    assertEquals(2, updates.size());
+    assertTrue(updates.get(0));
+    assertFalse(updates.get(1));
+  }
+
+  private static class FakeTimer implements CoalescingNotificationScheduler.Timer {
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    private long now = 1000;
+
+    @Override
+    public long currentTimeMillis() {
+      return now;
+    }
+
+    @Override
+    public void schedule(@NonNull Runnable task, long delayMillis) {
+      tasks.add(new Task(now + delayMillis, task));
+    }
+
+    void advance(long millis) {
+      long target = now + millis;
+
+      while (true) {
+        Task next = null;
+
+        for (Task task : tasks) {
+          if (task.runAt <= target && (next == null || task.runAt < next.runAt)) {
+            next = task;
+          }
+        }
+
+        if (next == null) break;
+
+        tasks.remove(next);
+        now = next.runAt;
+        next.runnable.run();
+      }
+
+      now = target;
+    }
+
+    private static class Task {
+      private final long     runAt;
+      private final Runnable runnable;
+
+      private Task(long runAt, @NonNull Runnable runnable) {
+        this.runAt    = runAt;
+        this.runnable = runnable;
+      }
+    }
+  }
+}